@@ -0,0 +1,25 @@
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Шаг сборки: кладет рядом с каждым переданным файлом сжатую brotli копию {@code .br}.
+ * Запускается из Maven в {@code process-resources} как файл исходного кода, без компиляции:
+ * {@code java -cp <classpath> BrotliAssets.java <файлы>}
+ */
+public class BrotliAssets {
+
+    public static void main(String[] args) throws IOException {
+        Brotli4jLoader.ensureAvailability();
+        Encoder.Parameters parameters = new Encoder.Parameters().setQuality(11);
+
+        for (String arg : args) {
+            Path file = Path.of(arg);
+            byte[] compressed = Encoder.compress(Files.readAllBytes(file), parameters);
+            Files.write(file.resolveSibling(file.getFileName() + ".br"), compressed);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package dev.ruslan.minichess.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class StaticResourceConfig {
+
+    /**
+     * Цепочка ресурсов (хеши в именах, готовые .gz) настраивается свойствами
+     * {@code spring.web.resources.chain.*}; здесь только политика кеширования для адресов с хешем
+     */
+    @Bean
+    public FilterRegistrationBean<VersionedResourceCacheFilter> versionedResourceCacheFilter() {
+        FilterRegistrationBean<VersionedResourceCacheFilter> registration =
+                new FilterRegistrationBean<>(new VersionedResourceCacheFilter());
+        registration.addUrlPatterns("/css/*", "/js/*", "/images/*");
+        return registration;
+    }
+}
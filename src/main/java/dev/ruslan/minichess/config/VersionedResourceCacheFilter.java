@@ -0,0 +1,53 @@
+package dev.ruslan.minichess.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.regex.Pattern;
+
+/**
+ * Отдает статику с хешем содержимого в имени (chess-&lt;md5&gt;.css) с кешированием на год.
+ * <p>
+ * Обработчик ресурсов ставит всем ответам {@code no-cache}; для адресов с хешем этот
+ * заголовок подменяется на {@code immutable}. Адреса без хеша по-прежнему перепроверяются,
+ * поэтому после выкладки клиент не останется со старой версией.
+ */
+public class VersionedResourceCacheFilter extends OncePerRequestFilter {
+
+    // Формат имен ContentVersionStrategy: имя-<md5>.расширение
+    private static final Pattern CONTENT_HASH = Pattern.compile("-[0-9a-f]{32}\\.[^/.]+$");
+
+    static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable()
+            .getHeaderValue();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!CONTENT_HASH.matcher(request.getRequestURI()).find()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        filterChain.doFilter(request, new HttpServletResponseWrapper(response) {
+            @Override
+            public void setHeader(String name, String value) {
+                super.setHeader(name, HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name) ? IMMUTABLE : value);
+            }
+
+            @Override
+            public void addHeader(String name, String value) {
+                super.addHeader(name, HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name) ? IMMUTABLE : value);
+            }
+        });
+    }
+}
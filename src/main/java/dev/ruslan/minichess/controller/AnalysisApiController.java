@@ -0,0 +1,117 @@
+package dev.ruslan.minichess.controller;
+
+import dev.ruslan.minichess.service.AnalysisBusyException;
+import dev.ruslan.minichess.service.AnalysisService;
+import dev.ruslan.minichess.service.GameService;
+import dev.ruslan.minichess.service.Position;
+import dev.ruslan.minichess.service.PositionCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@RestController
+@RequestMapping("/api")
+public class AnalysisApiController {
+
+    private static final int DEFAULT_DEPTH = 4;
+    private static final int DEFAULT_LINES = 3;
+    private static final int DEFAULT_TIME_MS = 5_000;
+
+    // Запас времени эмиттера сверх бюджета анализа на отправку последних событий
+    private static final long EMITTER_GRACE_MS = 5_000;
+
+    @Autowired
+    private GameService gameService;
+
+    @Autowired
+    private AnalysisService analysisService;
+
+    @Autowired
+    private PositionCache positionCache;
+
+    /**
+     * Анализ позиции из {@code fen} или, если он не задан, текущей партии.
+     * Остальные параметры (все необязательные): {@code depth}, {@code multiPv}, {@code timeMs}.
+     * Ответ — поток SSE: событие {@code depth} после каждой завершенной глубины
+     * и {@code done} с итоговым результатом. Если уже идет максимум анализов — {@code 429}.
+     */
+    @PostMapping("/analyze")
+    public SseEmitter analyze(@RequestBody(required = false) Map<String, Object> analyzeRequest) {
+        Map<String, Object> params = analyzeRequest != null ? analyzeRequest : Map.of();
+        int depth = intParam(params, "depth", DEFAULT_DEPTH);
+        int lines = intParam(params, "multiPv", DEFAULT_LINES);
+        int timeMs = intParam(params, "timeMs", DEFAULT_TIME_MS);
+
+        Object fen = params.get("fen");
+        if (fen != null && !(fen instanceof String)) {
+            throw new IllegalArgumentException("Параметр 'fen' должен быть строкой");
+        }
+        Position root = fen != null
+                ? positionCache.get(((String) fen).getBytes(StandardCharsets.ISO_8859_1))
+                : gameService.getPosition();
+
+        SseEmitter emitter = new SseEmitter(timeMs + EMITTER_GRACE_MS);
+        AtomicBoolean closed = new AtomicBoolean();
+        emitter.onCompletion(() -> closed.set(true));
+        emitter.onTimeout(() -> closed.set(true));
+        emitter.onError(error -> closed.set(true));
+
+        analysisService.analyzeAsync(root, depth, lines, timeMs,
+                        result -> send(emitter, closed, "depth", result), closed::get)
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        emitter.completeWithError(error);
+                        return;
+                    }
+                    send(emitter, closed, "done", result);
+                    emitter.complete();
+                });
+
+        return emitter;
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<Map<String, Object>> handleBadRequest(IllegalArgumentException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
+    @ExceptionHandler(AnalysisBusyException.class)
+    public ResponseEntity<Map<String, Object>> handleBusy(AnalysisBusyException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", e.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+    }
+
+    private void send(SseEmitter emitter, AtomicBoolean closed, String event, Object data) {
+        if (closed.get()) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event().name(event).data(data));
+        } catch (IOException | IllegalStateException e) {
+            // Клиент отключился — поиск остановится на следующем узле
+            closed.set(true);
+        }
+    }
+
+    private int intParam(Map<String, Object> params, String name, int defaultValue) {
+        Object value = params.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Integer number)) {
+            throw new IllegalArgumentException("Параметр '" + name + "' должен быть целым числом");
+        }
+        return number;
+    }
+}
@@ -4,10 +4,15 @@ import chess.mini.engine.data.Color;
 import chess.mini.engine.data.Piece;
 import chess.mini.engine.data.Square;
 import dev.ruslan.minichess.service.GameService;
+import dev.ruslan.minichess.service.Position;
+import dev.ruslan.minichess.service.PositionCache;
+import dev.ruslan.minichess.service.SpectatorService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,26 +23,46 @@ import java.util.stream.Collectors;
 @RequestMapping("/api")
 public class BoardApiController {
 
+    // Зритель переподключается сам (EventSource), поэтому поток можно периодически закрывать
+    private static final long SPECTATOR_TIMEOUT_MS = 30 * 60 * 1000;
+
     @Autowired
     private GameService gameService;
 
+    @Autowired
+    private PositionCache positionCache;
+
+    @Autowired
+    private SpectatorService spectatorService;
+
     @GetMapping("/board")
     public ResponseEntity<Map<String, Object>> getBoard() {
+        return ResponseEntity.ok(boardState(gameService.snapshot()));
+    }
+
+    /**
+     * Состояние доски в формате {@code /api/board}, построенное из одного снимка партии
+     */
+    private Map<String, Object> boardState(GameService.Snapshot snapshot) {
+        Position position = snapshot.position();
+        Color sideToMove = position.getSideToMove();
+
         Map<String, Object> response = new HashMap<>();
-        response.put("sideToMove", gameService.getSideToMove().name());
+        // Версия растет с каждым изменением партии: по ней клиент понимает, что доска устарела
+        response.put("version", snapshot.version());
+        response.put("sideToMove", sideToMove.name());
 
         // Добавляем информацию о шахе
-        response.put("inCheck", gameService.inCheck(gameService.getSideToMove()));
-        response.put("whiteInCheck", gameService.inCheck(Color.WHITE));
-        response.put("blackInCheck", gameService.inCheck(Color.BLACK));
+        response.put("inCheck", sideToMove == Color.WHITE ? snapshot.whiteInCheck() : snapshot.blackInCheck());
+        response.put("whiteInCheck", snapshot.whiteInCheck());
+        response.put("blackInCheck", snapshot.blackInCheck());
 
         // Преобразуем доску в формат для JSON
-        Piece[][] cells = gameService.getBoard().getCells();
         Object[][] boardData = new Object[8][8];
 
         for (int rank = 0; rank < 8; rank++) {
             for (int file = 0; file < 8; file++) {
-                Piece piece = cells[rank][file];
+                Piece piece = position.pieceAt(rank, file);
                 if (piece != null) {
                     Map<String, String> pieceData = new HashMap<>();
                     pieceData.put("type", piece.type().name());
@@ -50,7 +75,16 @@ public class BoardApiController {
         }
 
         response.put("cells", boardData);
-        return ResponseEntity.ok(response);
+        return response;
+    }
+
+    /**
+     * Снимает партию и рассылает ее зрителям; возвращает тот же JSON для ответа,
+     * чтобы каждое изменение сериализовалось один раз
+     */
+    private byte[] publishBoard() {
+        GameService.Snapshot snapshot = gameService.snapshot();
+        return spectatorService.publish(snapshot.version(), boardState(snapshot));
     }
 
     @GetMapping("/moves")
@@ -74,7 +108,7 @@ public class BoardApiController {
     }
 
     @PostMapping("/move")
-    public ResponseEntity<Map<String, Object>> makeMove(@RequestBody Map<String, String> moveRequest) {
+    public ResponseEntity<?> makeMove(@RequestBody Map<String, String> moveRequest) {
         try {
             String fromStr = moveRequest.get("from");
             String toStr = moveRequest.get("to");
@@ -90,8 +124,10 @@ public class BoardApiController {
 
             gameService.makeMove(from, to);
 
-            // Возвращаем новое состояние доски
-            return getBoard();
+            // Возвращаем новое состояние доски и рассылаем его зрителям
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(publishBoard());
 
         } catch (IllegalArgumentException e) {
             Map<String, Object> error = new HashMap<>();
@@ -108,9 +144,43 @@ public class BoardApiController {
     @PostMapping("/reset")
     public ResponseEntity<Void> reset() {
         gameService.reset();
+        publishBoard();
         return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
     }
 
+    /**
+     * Новая партия. Тело запроса (text/plain) — FEN начальной позиции, разбирается прямо из байтов;
+     * без тела партия начинается из стандартной расстановки. Тело другого типа (например, JSON) — 415.
+     */
+    @PostMapping(value = "/games", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<?> newGame(@RequestBody(required = false) byte[] fen) {
+        try {
+            if (fen == null || fen.length == 0) {
+                gameService.reset();
+            } else {
+                gameService.newGame(positionCache.get(fen));
+            }
+
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(publishBoard());
+
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    /**
+     * Поток SSE для зрителей: событие {@code board} с состоянием доски
+     * в формате {@code /api/board} после каждого изменения партии
+     */
+    @GetMapping("/spectate")
+    public SseEmitter spectate() {
+        return spectatorService.subscribe(new SseEmitter(SPECTATOR_TIMEOUT_MS), this::publishBoard);
+    }
+
     private Square parseSquare(String algebraic) {
         if (algebraic.length() != 2) {
             throw new IllegalArgumentException("Координата должна состоять из 2 символов");
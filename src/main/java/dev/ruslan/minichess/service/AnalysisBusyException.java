@@ -0,0 +1,11 @@
+package dev.ruslan.minichess.service;
+
+/**
+ * Новый анализ не запущен: уже идет максимум одновременных анализов
+ */
+public class AnalysisBusyException extends IllegalStateException {
+
+    public AnalysisBusyException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,444 @@
+package dev.ruslan.minichess.service;
+
+import chess.mini.engine.ChessEngine;
+import chess.mini.engine.core.CheckDetector;
+import chess.mini.engine.data.Color;
+import chess.mini.engine.data.Piece;
+import chess.mini.engine.data.PieceType;
+import chess.mini.engine.data.Square;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * Анализ позиции: несколько лучших вариантов (multi-PV) с оценкой.
+ * <p>
+ * Поиск — альфа-бета с итеративным углублением. На каждой глубине ходы из корня
+ * считаются параллельно в {@link ForkJoinPool}, все задачи одного анализа делят его
+ * таблицу транспозиций. Ходы в дереве генерирует {@link MoveGenerator} прямо по позиции;
+ * ходы корня и его мат или пат берутся из {@link ChessEngine} и {@link CheckDetector}.
+ * Одновременно идет не больше {@code minichess.analysis.max-concurrent} анализов.
+ */
+@Service
+public class AnalysisService {
+    public static final int MAX_DEPTH = 6;
+    public static final int MAX_LINES = 10;
+    public static final long MAX_TIME_MS = 60_000;
+
+    static final int MATE = 100_000;
+    private static final int INFINITY = MATE + 1;
+    private static final int MATE_THRESHOLD = MATE - 1_000;
+    // Предел таблицы транспозиций одного анализа; заполненная таблица новых позиций не принимает
+    private static final int MAX_TRANSPOSITIONS = 1 << 18;
+
+    private static final long[][] ZOBRIST_PIECES = new long[PieceType.values().length * 2][64];
+    private static final long ZOBRIST_BLACK_TO_MOVE;
+    private static final long[] ZOBRIST_CASTLING = new long[16];
+    private static final long[] ZOBRIST_EN_PASSANT = new long[8];
+
+    static {
+        Random random = new Random(20250101L);
+        for (long[] squares : ZOBRIST_PIECES) {
+            for (int i = 0; i < squares.length; i++) {
+                squares[i] = random.nextLong();
+            }
+        }
+        ZOBRIST_BLACK_TO_MOVE = random.nextLong();
+        for (int i = 0; i < ZOBRIST_CASTLING.length; i++) {
+            ZOBRIST_CASTLING[i] = random.nextLong();
+        }
+        for (int i = 0; i < ZOBRIST_EN_PASSANT.length; i++) {
+            ZOBRIST_EN_PASSANT[i] = random.nextLong();
+        }
+    }
+
+    private final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    private final Semaphore permits;
+
+    public AnalysisService(@Value("${minichess.analysis.max-concurrent:2}") int maxConcurrent) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Число одновременных анализов должно быть положительным");
+        }
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Вариант из корня: первый ход, оценка в сантипешках за сторону, которой ход,
+     * число ходов до мата (отрицательное — мат получаем мы) и главная линия
+     */
+    public record Line(String move, int score, Integer mateIn, List<String> pv) {
+    }
+
+    /**
+     * Результат одной завершенной глубины. Если в корне ходов нет, глубина нулевая,
+     * а {@code termination} говорит, мат это или пат; иначе {@code termination} пуст.
+     */
+    public record DepthResult(int depth, List<Line> lines, long nodes, long elapsedMs, Termination termination) {
+
+        public DepthResult(int depth, List<Line> lines, long nodes, long elapsedMs) {
+            this(depth, lines, nodes, elapsedMs, null);
+        }
+    }
+
+    public enum Termination {CHECKMATE, STALEMATE}
+
+    private enum Bound {EXACT, LOWER, UPPER}
+
+    private record Transposition(int depth, int score, Bound bound, Move bestMove) {
+    }
+
+    /**
+     * Запускает анализ в фоне. После каждой завершенной глубины вызывается {@code onDepth};
+     * итог — результат последней завершенной глубины (или пустой, если не успели ни одной).
+     * Некорректные параметры отклоняются сразу, до запуска поиска.
+     *
+     * @throws AnalysisBusyException если уже идет максимум анализов
+     */
+    public CompletableFuture<DepthResult> analyzeAsync(Position root, int maxDepth, int lines, long timeMs,
+                                                       Consumer<DepthResult> onDepth, BooleanSupplier cancelled) {
+        validate(maxDepth, lines, timeMs);
+        if (!permits.tryAcquire()) {
+            throw new AnalysisBusyException("Сервер занят другими анализами, повторите запрос позже");
+        }
+        try {
+            return CompletableFuture
+                    .supplyAsync(() -> analyze(root, maxDepth, lines, timeMs, onDepth, cancelled), pool)
+                    .whenComplete((result, error) -> permits.release());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public DepthResult analyze(Position root, int maxDepth, int lines, long timeMs,
+                               Consumer<DepthResult> onDepth, BooleanSupplier cancelled) {
+        validate(maxDepth, lines, timeMs);
+
+        Search search = new Search(System.nanoTime() + timeMs * 1_000_000, cancelled);
+        // Движок восстанавливается один раз на анализ: только для ходов и статуса корня
+        ChessEngine engine = root.restoreEngine();
+        List<Move> rootMoves = rootMoves(root, engine);
+        if (rootMoves.isEmpty()) {
+            Termination termination = CheckDetector.inCheck(root.getSideToMove(), engine.getBoard())
+                    ? Termination.CHECKMATE
+                    : Termination.STALEMATE;
+            return new DepthResult(0, List.of(), 0, search.elapsedMs(), termination);
+        }
+        DepthResult last = new DepthResult(0, List.of(), 0, 0);
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            List<Line> scored;
+            try {
+                scored = searchRoot(root, rootMoves, depth, search);
+            } catch (SearchAborted e) {
+                break;
+            }
+
+            // Следующую глубину начинаем с лучших ходов — так отсечения срабатывают раньше
+            Map<String, Integer> order = new HashMap<>();
+            for (int i = 0; i < scored.size(); i++) {
+                order.put(scored.get(i).move(), i);
+            }
+            rootMoves.sort(Comparator.comparingInt(move -> order.get(notation(move))));
+
+            last = new DepthResult(depth, List.copyOf(scored.subList(0, Math.min(lines, scored.size()))),
+                    search.nodes.sum(), search.elapsedMs());
+            onDepth.accept(last);
+        }
+        return last;
+    }
+
+    /**
+     * Ходы из корня: ходы генератора, которые разрешает и движок. Так анализ не предложит ход,
+     * который партия отклонит, даже если правила генератора и движка где-то разойдутся.
+     */
+    private List<Move> rootMoves(Position root, ChessEngine engine) {
+        Map<Square, List<Square>> engineMoves = new HashMap<>();
+        List<Move> moves = new ArrayList<>();
+        for (Move move : MoveGenerator.legalMoves(root)) {
+            if (engineMoves.computeIfAbsent(move.from(), engine::getLegalMoves).contains(move.to())) {
+                moves.add(move);
+            }
+        }
+        return moves;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private void validate(int maxDepth, int lines, long timeMs) {
+        if (maxDepth < 1 || maxDepth > MAX_DEPTH) {
+            throw new IllegalArgumentException("Глубина должна быть от 1 до " + MAX_DEPTH);
+        }
+        if (lines < 1 || lines > MAX_LINES) {
+            throw new IllegalArgumentException("Число вариантов должно быть от 1 до " + MAX_LINES);
+        }
+        if (timeMs < 1 || timeMs > MAX_TIME_MS) {
+            throw new IllegalArgumentException("Время анализа должно быть от 1 до " + MAX_TIME_MS + " мс");
+        }
+    }
+
+    /**
+     * Считает все ходы из корня на заданную глубину с полным окном,
+     * чтобы оценка каждого варианта была точной, а не только лучшего
+     */
+    private List<Line> searchRoot(Position root, List<Move> rootMoves, int depth, Search search) {
+        List<RecursiveTask<Line>> tasks = new ArrayList<>();
+        for (Move move : rootMoves) {
+            tasks.add(new RecursiveTask<>() {
+                @Override
+                protected Line compute() {
+                    Position child = MoveGenerator.play(root, move);
+                    int score = -negamax(child, depth - 1, -INFINITY, INFINITY, 1, search);
+
+                    List<String> pv = new ArrayList<>();
+                    pv.add(notation(move));
+                    pv.addAll(principalVariation(child, depth - 1, search));
+                    return new Line(notation(move), score, mateIn(score), pv);
+                }
+            });
+        }
+
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+
+        List<Line> scored = new ArrayList<>();
+        for (RecursiveTask<Line> task : tasks) {
+            scored.add(task.join());
+        }
+
+        scored.sort(Comparator.comparingInt(Line::score).reversed());
+        return scored;
+    }
+
+    private int negamax(Position position, int depth, int alpha, int beta, int ply, Search search) {
+        search.visit();
+
+        long key = zobrist(position);
+        Transposition entry = search.transpositions.get(key);
+        if (entry != null && entry.depth() >= depth) {
+            int score = fromTable(entry.score(), ply);
+            if (entry.bound() == Bound.EXACT
+                    || (entry.bound() == Bound.LOWER && score >= beta)
+                    || (entry.bound() == Bound.UPPER && score <= alpha)) {
+                return score;
+            }
+        }
+
+        List<Move> moves = MoveGenerator.legalMoves(position);
+        if (moves.isEmpty()) {
+            // Мат или пат
+            return MoveGenerator.inCheck(position, position.getSideToMove()) ? -MATE + ply : 0;
+        }
+        if (depth == 0) {
+            return evaluate(position);
+        }
+
+        orderMoves(moves, position, entry);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        Move bestMove = null;
+        for (Move move : moves) {
+            int score = -negamax(MoveGenerator.play(position, move), depth - 1, -beta, -alpha, ply + 1, search);
+            if (score > best) {
+                best = score;
+                bestMove = move;
+            }
+            alpha = Math.max(alpha, score);
+            if (alpha >= beta) {
+                break;
+            }
+        }
+
+        Bound bound = best <= originalAlpha ? Bound.UPPER : best >= beta ? Bound.LOWER : Bound.EXACT;
+        search.store(key, new Transposition(depth, toTable(best, ply), bound, bestMove));
+        return best;
+    }
+
+    /**
+     * Восстанавливает главную линию по лучшим ходам из таблицы транспозиций
+     */
+    private List<String> principalVariation(Position position, int length, Search search) {
+        List<String> pv = new ArrayList<>();
+        Position current = position;
+        for (int i = 0; i < length; i++) {
+            Transposition entry = search.transpositions.get(zobrist(current));
+            if (entry == null || entry.bestMove() == null) {
+                break;
+            }
+            try {
+                current = MoveGenerator.play(current, entry.bestMove());
+            } catch (IllegalArgumentException e) {
+                break;
+            }
+            pv.add(notation(entry.bestMove()));
+        }
+        return pv;
+    }
+
+    private void orderMoves(List<Move> moves, Position position, Transposition entry) {
+        Move hashMove = entry != null ? entry.bestMove() : null;
+        moves.sort(Comparator.comparingInt(move -> {
+            if (move.equals(hashMove)) {
+                return Integer.MIN_VALUE;
+            }
+            Piece victim = position.pieceAt(move.to().rank(), move.to().file());
+            return victim != null ? -value(victim.type()) : 0;
+        }));
+    }
+
+    /**
+     * Материал плюс небольшой бонус за центр, с точки зрения стороны, которой ход
+     */
+    private int evaluate(Position position) {
+        int score = 0;
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                Piece piece = position.pieceAt(rank, file);
+                if (piece == null) {
+                    continue;
+                }
+                int pieceScore = value(piece.type());
+                if (piece.type() != PieceType.KING && piece.type() != PieceType.ROOK) {
+                    pieceScore += centerBonus(rank, file);
+                }
+                score += piece.color() == position.getSideToMove() ? pieceScore : -pieceScore;
+            }
+        }
+        return score;
+    }
+
+    private static int value(PieceType type) {
+        return switch (type) {
+            case PAWN -> 100;
+            case KNIGHT -> 320;
+            case BISHOP -> 330;
+            case ROOK -> 500;
+            case QUEEN -> 900;
+            case KING -> 0;
+        };
+    }
+
+    private static int centerBonus(int rank, int file) {
+        int distance = Math.max(Math.abs(2 * rank - 7), Math.abs(2 * file - 7));
+        return distance <= 1 ? 20 : distance <= 3 ? 10 : 0;
+    }
+
+    private static long zobrist(Position position) {
+        long hash = position.getSideToMove() == Color.BLACK ? ZOBRIST_BLACK_TO_MOVE : 0;
+        hash ^= ZOBRIST_CASTLING[position.getCastling()];
+        if (position.getEnPassant() != null) {
+            hash ^= ZOBRIST_EN_PASSANT[position.getEnPassant().file()];
+        }
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                Piece piece = position.pieceAt(rank, file);
+                if (piece != null) {
+                    hash ^= ZOBRIST_PIECES[piece.type().ordinal() * 2 + piece.color().ordinal()][rank * 8 + file];
+                }
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Оценки мата в таблице хранятся относительно узла, а не корня
+     */
+    private static int toTable(int score, int ply) {
+        if (score > MATE_THRESHOLD) return score + ply;
+        if (score < -MATE_THRESHOLD) return score - ply;
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (score > MATE_THRESHOLD) return score - ply;
+        if (score < -MATE_THRESHOLD) return score + ply;
+        return score;
+    }
+
+    private static Integer mateIn(int score) {
+        if (score > MATE_THRESHOLD) return (MATE - score + 1) / 2;
+        if (score < -MATE_THRESHOLD) return -(MATE + score) / 2;
+        return null;
+    }
+
+    private static String notation(Move move) {
+        return squareToAlgebraic(move.from()) + "-" + squareToAlgebraic(move.to());
+    }
+
+    private static String squareToAlgebraic(Square square) {
+        char file = (char) ('a' + square.file());
+        int rank = square.rank() + 1;
+        return String.valueOf(file) + rank;
+    }
+
+    /**
+     * Состояние одного запуска анализа: бюджет времени, счетчик узлов и своя таблица транспозиций
+     */
+    private static final class Search {
+        private final long startedAt = System.nanoTime();
+        private final long deadline;
+        private final BooleanSupplier cancelled;
+        private final LongAdder nodes = new LongAdder();
+        private final Map<Long, Transposition> transpositions = new ConcurrentHashMap<>();
+
+        Search(long deadline, BooleanSupplier cancelled) {
+            this.deadline = deadline;
+            this.cancelled = cancelled;
+        }
+
+        void visit() {
+            nodes.increment();
+            if (System.nanoTime() > deadline || cancelled.getAsBoolean()) {
+                throw new SearchAborted();
+            }
+        }
+
+        /**
+         * Известные позиции обновляются всегда, новые — пока таблица не заполнена
+         */
+        void store(long key, Transposition entry) {
+            if (transpositions.size() < MAX_TRANSPOSITIONS) {
+                transpositions.put(key, entry);
+            } else {
+                transpositions.replace(key, entry);
+            }
+        }
+
+        long elapsedMs() {
+            return (System.nanoTime() - startedAt) / 1_000_000;
+        }
+    }
+
+    /**
+     * Прерывает поиск при исчерпании времени или отмене; незавершенная глубина отбрасывается
+     */
+    private static final class SearchAborted extends RuntimeException {
+        SearchAborted() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package dev.ruslan.minichess.service;
+
+import chess.mini.engine.core.Board;
+import chess.mini.engine.core.CheckDetector;
+import chess.mini.engine.data.Color;
+import chess.mini.engine.data.Piece;
+import chess.mini.engine.data.PieceType;
+import chess.mini.engine.data.Square;
+
+/**
+ * Разбор FEN прямо из байтов тела запроса, без промежуточных строк.
+ * <p>
+ * Обязательны расстановка и сторона, которой ход. Движок восстанавливается из позиции
+ * без истории ходов: рокировку он разрешает, пока король и ладья стоят на исходных клетках,
+ * а взятия на проходе не знает. Поэтому FEN, права в котором расходятся с этим, отклоняется
+ * (см. {@link Position#toEngine()}).
+ * Счетчики ходов только проверяются на корректность.
+ */
+public final class FenParser {
+
+    private FenParser() {
+    }
+
+    public static Position parse(byte[] fen) {
+        return parse(fen, 0, fen.length);
+    }
+
+    /**
+     * Разбирает FEN из диапазона {@code [from, to)} массива и проверяет легальность позиции
+     */
+    public static Position parse(byte[] fen, int from, int to) {
+        Piece[][] cells = new Piece[8][8];
+        int i = parsePlacement(fen, from, to, cells);
+
+        i = expectSpace(fen, i, to);
+        if (i >= to || (fen[i] != 'w' && fen[i] != 'b')) {
+            throw new IllegalArgumentException("Сторона, которой ход, должна быть 'w' или 'b'");
+        }
+        Color sideToMove = fen[i++] == 'w' ? Color.WHITE : Color.BLACK;
+
+        int castling = -1;
+        if (i < to) {
+            int start = expectSpace(fen, i, to);
+            i = parseCastling(fen, start, to);
+            castling = castlingRights(fen, start, i);
+        }
+        int enPassant = -1;
+        if (i < to) {
+            int start = expectSpace(fen, i, to);
+            i = parseEnPassant(fen, start, to);
+            if (fen[start] != '-') {
+                enPassant = start;
+            }
+        }
+        if (i < to) {
+            i = parseNumber(fen, expectSpace(fen, i, to), to);
+        }
+        if (i < to) {
+            i = parseNumber(fen, expectSpace(fen, i, to), to);
+        }
+        if (i < to) {
+            throw new IllegalArgumentException("Лишние символы в конце FEN");
+        }
+
+        validate(cells, sideToMove);
+        Square enPassantSquare = null;
+        if (enPassant >= 0) {
+            enPassantSquare = new Square(fen[enPassant] - 'a', fen[enPassant + 1] - '1');
+            validateEnPassant(cells, sideToMove, enPassantSquare);
+        }
+        new Position(cells, sideToMove, castling >= 0 ? castling : Position.castlingFromPlacement(cells),
+                enPassantSquare).requireRestorable();
+
+        // Клетка взятия, которой никто не может воспользоваться, равносильна '-'
+        return new Position(cells, sideToMove);
+    }
+
+    private static int parsePlacement(byte[] fen, int i, int to, Piece[][] cells) {
+        int rank = 7;
+        int file = 0;
+
+        for (; i < to && fen[i] != ' '; i++) {
+            byte c = fen[i];
+            if (c == '/') {
+                if (file != 8 || rank == 0) {
+                    throw new IllegalArgumentException("Расстановка должна состоять из 8 горизонталей по 8 клеток");
+                }
+                rank--;
+                file = 0;
+            } else if (c >= '1' && c <= '8') {
+                file += c - '0';
+                if (file > 8) {
+                    throw new IllegalArgumentException("Расстановка должна состоять из 8 горизонталей по 8 клеток");
+                }
+            } else {
+                if (file >= 8) {
+                    throw new IllegalArgumentException("Расстановка должна состоять из 8 горизонталей по 8 клеток");
+                }
+                cells[rank][file++] = piece(c);
+            }
+        }
+
+        if (rank != 0 || file != 8) {
+            throw new IllegalArgumentException("Расстановка должна состоять из 8 горизонталей по 8 клеток");
+        }
+        return i;
+    }
+
+    private static Piece piece(byte c) {
+        Color color = c >= 'a' ? Color.BLACK : Color.WHITE;
+        PieceType type = switch (c | 0x20) {
+            case 'p' -> PieceType.PAWN;
+            case 'n' -> PieceType.KNIGHT;
+            case 'b' -> PieceType.BISHOP;
+            case 'r' -> PieceType.ROOK;
+            case 'q' -> PieceType.QUEEN;
+            case 'k' -> PieceType.KING;
+            default -> throw new IllegalArgumentException("Неизвестная фигура '" + (char) c + "'");
+        };
+        return new Piece(type, color);
+    }
+
+    private static int parseCastling(byte[] fen, int i, int to) {
+        if (i < to && fen[i] == '-') {
+            return i + 1;
+        }
+        int start = i;
+        while (i < to && (fen[i] == 'K' || fen[i] == 'Q' || fen[i] == 'k' || fen[i] == 'q')) {
+            i++;
+        }
+        if (i == start) {
+            throw new IllegalArgumentException("Права на рокировку должны быть '-' или из символов KQkq");
+        }
+        return i;
+    }
+
+    private static int castlingRights(byte[] fen, int from, int to) {
+        int castling = 0;
+        for (int i = from; i < to; i++) {
+            castling |= switch (fen[i]) {
+                case 'K' -> Position.WHITE_KINGSIDE;
+                case 'Q' -> Position.WHITE_QUEENSIDE;
+                case 'k' -> Position.BLACK_KINGSIDE;
+                case 'q' -> Position.BLACK_QUEENSIDE;
+                default -> 0;
+            };
+        }
+        return castling;
+    }
+
+    private static int parseEnPassant(byte[] fen, int i, int to) {
+        if (i < to && fen[i] == '-') {
+            return i + 1;
+        }
+        if (i + 1 >= to || fen[i] < 'a' || fen[i] > 'h' || (fen[i + 1] != '3' && fen[i + 1] != '6')) {
+            throw new IllegalArgumentException("Поле взятия на проходе должно быть '-' или клеткой на 3-й или 6-й горизонтали");
+        }
+        return i + 2;
+    }
+
+    private static int parseNumber(byte[] fen, int i, int to) {
+        int start = i;
+        while (i < to && fen[i] >= '0' && fen[i] <= '9') {
+            i++;
+        }
+        if (i == start) {
+            throw new IllegalArgumentException("Счетчики ходов должны быть числами");
+        }
+        return i;
+    }
+
+    private static int expectSpace(byte[] fen, int i, int to) {
+        if (i >= to || fen[i] != ' ') {
+            throw new IllegalArgumentException("Поля FEN должны разделяться пробелом");
+        }
+        while (i < to && fen[i] == ' ') {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Клетка взятия на проходе должна соответствовать стороне, которой ход,
+     * и через нее должна только что пройти пешка соперника
+     */
+    private static void validateEnPassant(Piece[][] cells, Color sideToMove, Square square) {
+        int file = square.file();
+        int rank = square.rank();
+        boolean whiteToMove = sideToMove == Color.WHITE;
+        int pawnRank = whiteToMove ? 4 : 3;
+        int originRank = whiteToMove ? 6 : 1;
+        Color moved = whiteToMove ? Color.BLACK : Color.WHITE;
+
+        if (rank != (whiteToMove ? 5 : 2)) {
+            throw new IllegalArgumentException("Клетка взятия на проходе не соответствует стороне, которой ход");
+        }
+        Piece pawn = cells[pawnRank][file];
+        if (cells[rank][file] != null || cells[originRank][file] != null
+                || pawn == null || pawn.type() != PieceType.PAWN || pawn.color() != moved) {
+            throw new IllegalArgumentException("Через клетку взятия на проходе не проходила пешка");
+        }
+    }
+
+    /**
+     * Проверяет, что позиция могла возникнуть в партии: по одному королю,
+     * пешки не на крайних горизонталях и король стороны, которой не ход, не под шахом
+     */
+    private static void validate(Piece[][] cells, Color sideToMove) {
+        int[] kings = new int[2];
+        int[] pawns = new int[2];
+        int[] pieces = new int[2];
+        Board board = new Board();
+
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                Piece piece = cells[rank][file];
+                if (piece == null) {
+                    continue;
+                }
+                int side = piece.color().ordinal();
+                pieces[side]++;
+                if (piece.type() == PieceType.KING) {
+                    kings[side]++;
+                }
+                if (piece.type() == PieceType.PAWN) {
+                    if (rank == 0 || rank == 7) {
+                        throw new IllegalArgumentException("Пешка не может стоять на первой или последней горизонтали");
+                    }
+                    pawns[side]++;
+                }
+                board.setPiece(rank, file, piece);
+            }
+        }
+
+        for (int side = 0; side < 2; side++) {
+            if (kings[side] != 1) {
+                throw new IllegalArgumentException("У каждой стороны должен быть ровно один король");
+            }
+            if (pawns[side] > 8 || pieces[side] > 16) {
+                throw new IllegalArgumentException("У стороны не может быть больше 8 пешек и 16 фигур");
+            }
+        }
+
+        Color waiting = sideToMove == Color.WHITE ? Color.BLACK : Color.WHITE;
+        if (CheckDetector.inCheck(waiting, board)) {
+            throw new IllegalArgumentException("Король стороны, которой не ход, не может быть под шахом");
+        }
+    }
+}
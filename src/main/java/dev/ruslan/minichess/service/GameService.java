@@ -4,60 +4,116 @@ import chess.mini.engine.ChessEngine;
 import chess.mini.engine.core.Board;
 import chess.mini.engine.core.CheckDetector;
 import chess.mini.engine.data.Color;
+import chess.mini.engine.data.Piece;
+import chess.mini.engine.data.PieceType;
 import chess.mini.engine.data.Square;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Текущая партия. Все обращения идут под монитором сервиса: каждое изменение
+ * увеличивает версию партии, а {@link #snapshot()} снимает позицию вместе с версией,
+ * поэтому по версии можно понять, какое из двух состояний новее.
+ */
 @Service
 public class GameService {
     private ChessEngine chessEngine;
     private List<String> moves = new ArrayList<>();
+    private long version;
+
+    // Движок историю не отдает, поэтому рокировки и взятие на проходе для снимков ведем сами
+    private int castling;
+    private Square enPassant;
+
+    /**
+     * Согласованный снимок партии: версия, позиция и шахи, снятые под одной блокировкой
+     */
+    public record Snapshot(long version, Position position, boolean whiteInCheck, boolean blackInCheck) {
+    }
 
     public GameService() {
         reset();
     }
 
-    public Board getBoard() {
-        return chessEngine.getBoard();
+    public synchronized Color getSideToMove() {
+        return chessEngine.getSideToMove();
     }
 
-    public Color getSideToMove() {
-        return chessEngine.getSideToMove();
+    /**
+     * Неизменяемый снимок текущей позиции
+     */
+    public synchronized Position getPosition() {
+        return new Position(chessEngine.getBoard().getCells(), chessEngine.getSideToMove(), castling, enPassant);
+    }
+
+    /**
+     * Снимок партии вместе с ее версией
+     */
+    public synchronized Snapshot snapshot() {
+        Board board = chessEngine.getBoard();
+        return new Snapshot(version, getPosition(),
+                CheckDetector.inCheck(Color.WHITE, board), CheckDetector.inCheck(Color.BLACK, board));
     }
 
-    public List<String> getMoves() {
+    public synchronized List<String> getMoves() {
         return new ArrayList<>(moves);
     }
 
-    public void reset() {
+    public synchronized void reset() {
+        version++;
         chessEngine = new ChessEngine();
         moves.clear();
+        castling = Position.castlingFromPlacement(chessEngine.getBoard().getCells());
+        enPassant = null;
+    }
+
+    /**
+     * Начинает новую партию из заданной позиции. Позиция, права которой движок
+     * без истории соблюдать не будет, отклоняется, и текущая партия не меняется.
+     *
+     * @throws IllegalArgumentException см. {@link Position#toEngine()}
+     */
+    public synchronized void newGame(Position position) {
+        ChessEngine engine = position.toEngine();
+        version++;
+        chessEngine = engine;
+        moves.clear();
+        castling = position.getCastling();
+        enPassant = position.getEnPassant();
     }
 
     /**
      * Проверяет, атакуется ли указанная клетка фигурами заданного цвета
      */
-    public boolean isSquareAttacked(Square target, Color byColor) {
+    public synchronized boolean isSquareAttacked(Square target, Color byColor) {
         return chessEngine.isSquareAttacked(target, byColor);
     }
 
     /**
      * Проверяет, находится ли король заданного цвета под шахом
      */
-    public boolean inCheck(Color color) {
+    public synchronized boolean inCheck(Color color) {
         // Проверяем шах для указанного цвета
         return CheckDetector.inCheck(color, chessEngine.getBoard());
     }
 
-    public List<Square> legalMovesFrom(Square from) {
+    public synchronized List<Square> legalMovesFrom(Square from) {
         return chessEngine.getLegalMoves(from);
     }
 
-    public void makeMove(Square from, Square to) {
-        // Выполнение хода через движок
+    public synchronized void makeMove(Square from, Square to) {
+        Piece piece = chessEngine.getBoard().getPiece(from.rank(), from.file());
+
+        // Выполнение хода через движок; отклоненный ход версию не меняет
         chessEngine.makeMove(from, to);
+        version++;
+
+        castling &= ~(Position.castlingLostAt(from) | Position.castlingLostAt(to));
+        boolean doublePush = piece != null && piece.type() == PieceType.PAWN
+                && Math.abs(to.rank() - from.rank()) == 2;
+        enPassant = doublePush ? new Square(from.file(), (from.rank() + to.rank()) / 2) : null;
 
         // Запись хода
         String moveNotation = squareToAlgebraic(from) + "-" + squareToAlgebraic(to);
@@ -0,0 +1,9 @@
+package dev.ruslan.minichess.service;
+
+import chess.mini.engine.data.Square;
+
+/**
+ * Ход фигуры с клетки на клетку; превращение пешки — всегда в ферзя, как в движке
+ */
+public record Move(Square from, Square to) {
+}
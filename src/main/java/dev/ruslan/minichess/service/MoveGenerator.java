@@ -0,0 +1,316 @@
+package dev.ruslan.minichess.service;
+
+import chess.mini.engine.data.Color;
+import chess.mini.engine.data.Piece;
+import chess.mini.engine.data.PieceType;
+import chess.mini.engine.data.Square;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Генерация ходов прямо по {@link Position}, без движка.
+ * <p>
+ * Движок нельзя поставить в произвольную позицию (см. {@link Position#toEngine()}),
+ * а пересоздавать его в каждом узле поиска дорого. Правила те же, что у движка:
+ * рокировка и взятие на проходе берутся из позиции, пешка превращается в ферзя.
+ * Совпадение с движком проверяется тестом на случайных партиях; в корне анализа
+ * ходы дополнительно сверяются с самим движком.
+ */
+public final class MoveGenerator {
+    // Направления в виде {rank, file}
+    private static final int[][] KNIGHT = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    private static final int[][] DIAGONAL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] STRAIGHT = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    private MoveGenerator() {
+    }
+
+    /**
+     * Все легальные ходы стороны, которой ход
+     */
+    public static List<Move> legalMoves(Position position) {
+        Piece[][] cells = cells(position);
+        Color side = position.getSideToMove();
+
+        List<Move> legal = new ArrayList<>();
+        for (Move move : pseudoLegalMoves(position, cells)) {
+            Piece[][] after = copy(cells);
+            apply(after, move, position.getEnPassant());
+            if (!kingAttacked(after, side)) {
+                legal.add(move);
+            }
+        }
+        return legal;
+    }
+
+    /**
+     * Позиция после хода. Легальность хода не проверяется.
+     */
+    public static Position play(Position position, Move move) {
+        Piece[][] cells = cells(position);
+        Piece piece = cells[move.from().rank()][move.from().file()];
+        if (piece == null) {
+            throw new IllegalArgumentException("Ход из пустой клетки");
+        }
+        apply(cells, move, position.getEnPassant());
+
+        int castling = position.getCastling()
+                & ~(Position.castlingLostAt(move.from()) | Position.castlingLostAt(move.to()));
+        boolean doublePush = piece.type() == PieceType.PAWN
+                && Math.abs(move.to().rank() - move.from().rank()) == 2;
+        Square enPassant = doublePush
+                ? new Square(move.from().file(), (move.from().rank() + move.to().rank()) / 2)
+                : null;
+
+        return new Position(cells, opposite(position.getSideToMove()), castling, enPassant);
+    }
+
+    /**
+     * Находится ли король заданного цвета под шахом
+     */
+    public static boolean inCheck(Position position, Color color) {
+        return kingAttacked(cells(position), color);
+    }
+
+    private static List<Move> pseudoLegalMoves(Position position, Piece[][] cells) {
+        Color side = position.getSideToMove();
+        List<Move> moves = new ArrayList<>();
+
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                Piece piece = cells[rank][file];
+                if (piece == null || piece.color() != side) {
+                    continue;
+                }
+                switch (piece.type()) {
+                    case PAWN -> pawnMoves(cells, rank, file, side, position.getEnPassant(), moves);
+                    case KNIGHT -> steps(cells, rank, file, side, KNIGHT, moves);
+                    case BISHOP -> slides(cells, rank, file, side, DIAGONAL, moves);
+                    case ROOK -> slides(cells, rank, file, side, STRAIGHT, moves);
+                    case QUEEN -> {
+                        slides(cells, rank, file, side, DIAGONAL, moves);
+                        slides(cells, rank, file, side, STRAIGHT, moves);
+                    }
+                    case KING -> {
+                        steps(cells, rank, file, side, KING, moves);
+                        castlingMoves(cells, rank, file, side, position.getCastling(), moves);
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private static void pawnMoves(Piece[][] cells, int rank, int file, Color side, Square enPassant, List<Move> moves) {
+        int direction = side == Color.WHITE ? 1 : -1;
+        int startRank = side == Color.WHITE ? 1 : 6;
+        Square from = new Square(file, rank);
+
+        int next = rank + direction;
+        if (next < 0 || next > 7) {
+            return;
+        }
+        if (cells[next][file] == null) {
+            moves.add(new Move(from, new Square(file, next)));
+            if (rank == startRank && cells[next + direction][file] == null) {
+                moves.add(new Move(from, new Square(file, next + direction)));
+            }
+        }
+        for (int target = file - 1; target <= file + 1; target += 2) {
+            if (target < 0 || target > 7) {
+                continue;
+            }
+            Piece victim = cells[next][target];
+            Square to = new Square(target, next);
+            if ((victim != null && victim.color() != side) || to.equals(enPassant)) {
+                moves.add(new Move(from, to));
+            }
+        }
+    }
+
+    private static void steps(Piece[][] cells, int rank, int file, Color side, int[][] directions, List<Move> moves) {
+        Square from = new Square(file, rank);
+        for (int[] direction : directions) {
+            int toRank = rank + direction[0];
+            int toFile = file + direction[1];
+            if (onBoard(toRank, toFile) && (cells[toRank][toFile] == null || cells[toRank][toFile].color() != side)) {
+                moves.add(new Move(from, new Square(toFile, toRank)));
+            }
+        }
+    }
+
+    private static void slides(Piece[][] cells, int rank, int file, Color side, int[][] directions, List<Move> moves) {
+        Square from = new Square(file, rank);
+        for (int[] direction : directions) {
+            int toRank = rank + direction[0];
+            int toFile = file + direction[1];
+            while (onBoard(toRank, toFile)) {
+                Piece piece = cells[toRank][toFile];
+                if (piece == null || piece.color() != side) {
+                    moves.add(new Move(from, new Square(toFile, toRank)));
+                }
+                if (piece != null) {
+                    break;
+                }
+                toRank += direction[0];
+                toFile += direction[1];
+            }
+        }
+    }
+
+    /**
+     * Рокировка: есть право, между королем и ладьей пусто, король не под шахом
+     * и не проходит через атакованное поле
+     */
+    private static void castlingMoves(Piece[][] cells, int rank, int file, Color side, int castling, List<Move> moves) {
+        int homeRank = side == Color.WHITE ? 0 : 7;
+        if (rank != homeRank || file != 4) {
+            return;
+        }
+        Color enemy = opposite(side);
+        int kingside = side == Color.WHITE ? Position.WHITE_KINGSIDE : Position.BLACK_KINGSIDE;
+        int queenside = side == Color.WHITE ? Position.WHITE_QUEENSIDE : Position.BLACK_QUEENSIDE;
+        Square from = new Square(file, rank);
+
+        if ((castling & kingside) != 0 && isRook(cells[rank][7], side)
+                && cells[rank][5] == null && cells[rank][6] == null
+                && !attacked(cells, rank, 4, enemy) && !attacked(cells, rank, 5, enemy)
+                && !attacked(cells, rank, 6, enemy)) {
+            moves.add(new Move(from, new Square(6, rank)));
+        }
+        if ((castling & queenside) != 0 && isRook(cells[rank][0], side)
+                && cells[rank][1] == null && cells[rank][2] == null && cells[rank][3] == null
+                && !attacked(cells, rank, 4, enemy) && !attacked(cells, rank, 3, enemy)
+                && !attacked(cells, rank, 2, enemy)) {
+            moves.add(new Move(from, new Square(2, rank)));
+        }
+    }
+
+    /**
+     * Переставляет фигуры на доске: вместе с королем при рокировке ходит ладья,
+     * при взятии на проходе снимается пешка, пешка на последней горизонтали становится ферзем
+     */
+    private static void apply(Piece[][] cells, Move move, Square enPassant) {
+        int fromRank = move.from().rank();
+        int fromFile = move.from().file();
+        int toRank = move.to().rank();
+        int toFile = move.to().file();
+        Piece piece = cells[fromRank][fromFile];
+
+        if (piece.type() == PieceType.PAWN) {
+            if (move.to().equals(enPassant) && fromFile != toFile && cells[toRank][toFile] == null) {
+                cells[fromRank][toFile] = null;
+            }
+            if (toRank == 0 || toRank == 7) {
+                piece = new Piece(PieceType.QUEEN, piece.color());
+            }
+        } else if (piece.type() == PieceType.KING && Math.abs(toFile - fromFile) == 2) {
+            int rookFrom = toFile > fromFile ? 7 : 0;
+            int rookTo = toFile > fromFile ? 5 : 3;
+            cells[fromRank][rookTo] = cells[fromRank][rookFrom];
+            cells[fromRank][rookFrom] = null;
+        }
+
+        cells[toRank][toFile] = piece;
+        cells[fromRank][fromFile] = null;
+    }
+
+    private static boolean kingAttacked(Piece[][] cells, Color color) {
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                Piece piece = cells[rank][file];
+                if (piece != null && piece.type() == PieceType.KING && piece.color() == color) {
+                    return attacked(cells, rank, file, opposite(color));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Атакует ли клетку хотя бы одна фигура заданного цвета
+     */
+    private static boolean attacked(Piece[][] cells, int rank, int file, Color by) {
+        int pawnRank = rank - (by == Color.WHITE ? 1 : -1);
+        for (int pawnFile = file - 1; pawnFile <= file + 1; pawnFile += 2) {
+            if (onBoard(pawnRank, pawnFile) && is(cells[pawnRank][pawnFile], PieceType.PAWN, by)) {
+                return true;
+            }
+        }
+        return attackedByStep(cells, rank, file, by, KNIGHT, PieceType.KNIGHT)
+                || attackedByStep(cells, rank, file, by, KING, PieceType.KING)
+                || attackedBySlide(cells, rank, file, by, DIAGONAL, PieceType.BISHOP)
+                || attackedBySlide(cells, rank, file, by, STRAIGHT, PieceType.ROOK);
+    }
+
+    private static boolean attackedByStep(Piece[][] cells, int rank, int file, Color by,
+                                          int[][] directions, PieceType type) {
+        for (int[] direction : directions) {
+            int fromRank = rank + direction[0];
+            int fromFile = file + direction[1];
+            if (onBoard(fromRank, fromFile) && is(cells[fromRank][fromFile], type, by)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Атака вдоль линии: ладьей или слоном и ферзем, первая фигура на пути закрывает линию
+     */
+    private static boolean attackedBySlide(Piece[][] cells, int rank, int file, Color by,
+                                           int[][] directions, PieceType type) {
+        for (int[] direction : directions) {
+            int fromRank = rank + direction[0];
+            int fromFile = file + direction[1];
+            while (onBoard(fromRank, fromFile)) {
+                Piece piece = cells[fromRank][fromFile];
+                if (piece != null) {
+                    if (piece.color() == by && (piece.type() == type || piece.type() == PieceType.QUEEN)) {
+                        return true;
+                    }
+                    break;
+                }
+                fromRank += direction[0];
+                fromFile += direction[1];
+            }
+        }
+        return false;
+    }
+
+    private static boolean is(Piece piece, PieceType type, Color color) {
+        return piece != null && piece.type() == type && piece.color() == color;
+    }
+
+    private static boolean isRook(Piece piece, Color color) {
+        return is(piece, PieceType.ROOK, color);
+    }
+
+    private static boolean onBoard(int rank, int file) {
+        return rank >= 0 && rank < 8 && file >= 0 && file < 8;
+    }
+
+    private static Color opposite(Color color) {
+        return color == Color.WHITE ? Color.BLACK : Color.WHITE;
+    }
+
+    private static Piece[][] cells(Position position) {
+        Piece[][] cells = new Piece[8][8];
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                cells[rank][file] = position.pieceAt(rank, file);
+            }
+        }
+        return cells;
+    }
+
+    private static Piece[][] copy(Piece[][] cells) {
+        Piece[][] copy = new Piece[8][];
+        for (int rank = 0; rank < 8; rank++) {
+            copy[rank] = cells[rank].clone();
+        }
+        return copy;
+    }
+}
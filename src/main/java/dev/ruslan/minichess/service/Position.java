@@ -0,0 +1,183 @@
+package dev.ruslan.minichess.service;
+
+import chess.mini.engine.ChessEngine;
+import chess.mini.engine.core.Board;
+import chess.mini.engine.data.Color;
+import chess.mini.engine.data.Piece;
+import chess.mini.engine.data.PieceType;
+import chess.mini.engine.data.Square;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Неизменяемый снимок позиции: расстановка фигур, сторона, которой ход,
+ * права на рокировку и клетка взятия на проходе.
+ * Клетки адресуются так же, как в {@link Board}: {@code [rank][file]}.
+ */
+public final class Position {
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+
+    private final Piece[][] cells;
+    private final Color sideToMove;
+    private final int castling;
+    private final Square enPassant;
+
+    /**
+     * Позиция без истории: рокировки выводятся из расстановки, взятия на проходе нет
+     */
+    public Position(Piece[][] cells, Color sideToMove) {
+        this(cells, sideToMove, castlingFromPlacement(cells), null);
+    }
+
+    /**
+     * @param castling  права на рокировку — сумма флагов {@link #WHITE_KINGSIDE} и т.д.
+     * @param enPassant клетка, через которую только что прошла пешка, или {@code null}
+     */
+    public Position(Piece[][] cells, Color sideToMove, int castling, Square enPassant) {
+        this.cells = new Piece[8][];
+        for (int rank = 0; rank < 8; rank++) {
+            this.cells[rank] = Arrays.copyOf(cells[rank], 8);
+        }
+        this.sideToMove = sideToMove;
+        this.castling = castling;
+        this.enPassant = enPassant;
+    }
+
+    /**
+     * Снимает текущую позицию движка. Историю движок не отдает,
+     * поэтому рокировки выводятся из расстановки, а взятие на проходе не учитывается.
+     */
+    public static Position of(ChessEngine engine) {
+        return new Position(engine.getBoard().getCells(), engine.getSideToMove());
+    }
+
+    /**
+     * Рокировки, которые разрешит движок без истории ходов: король и ладья стоят на исходных клетках
+     */
+    public static int castlingFromPlacement(Piece[][] cells) {
+        int castling = 0;
+        if (isAt(cells, 0, 4, PieceType.KING, Color.WHITE)) {
+            if (isAt(cells, 0, 7, PieceType.ROOK, Color.WHITE)) castling |= WHITE_KINGSIDE;
+            if (isAt(cells, 0, 0, PieceType.ROOK, Color.WHITE)) castling |= WHITE_QUEENSIDE;
+        }
+        if (isAt(cells, 7, 4, PieceType.KING, Color.BLACK)) {
+            if (isAt(cells, 7, 7, PieceType.ROOK, Color.BLACK)) castling |= BLACK_KINGSIDE;
+            if (isAt(cells, 7, 0, PieceType.ROOK, Color.BLACK)) castling |= BLACK_QUEENSIDE;
+        }
+        return castling;
+    }
+
+    /**
+     * Права на рокировку, которые теряются, когда ход начинается или заканчивается на клетке
+     */
+    public static int castlingLostAt(Square square) {
+        return switch (square.rank() * 8 + square.file()) {
+            case 4 -> WHITE_KINGSIDE | WHITE_QUEENSIDE;
+            case 0 -> WHITE_QUEENSIDE;
+            case 7 -> WHITE_KINGSIDE;
+            case 60 -> BLACK_KINGSIDE | BLACK_QUEENSIDE;
+            case 56 -> BLACK_QUEENSIDE;
+            case 63 -> BLACK_KINGSIDE;
+            default -> 0;
+        };
+    }
+
+    /**
+     * Проверяет, что движок, восстановленный без истории, будет соблюдать права этой позиции:
+     * рокировки совпадают с расстановкой, а взять пешку на проходе некому
+     */
+    void requireRestorable() {
+        if (castling != castlingFromPlacement(cells)) {
+            throw new IllegalArgumentException(
+                    "Права на рокировку должны совпадать с расстановкой: без истории ходов рокировка " +
+                            "разрешена, только пока король и ладья стоят на исходных клетках");
+        }
+        if (enPassant != null && enPassantCapturable()) {
+            throw new IllegalArgumentException(
+                    "Взятие на проходе не поддерживается: позиция восстанавливается без истории ходов");
+        }
+    }
+
+    private boolean enPassantCapturable() {
+        int pawnRank = sideToMove == Color.WHITE ? 4 : 3;
+        int file = enPassant.file();
+        return (file > 0 && isAt(cells, pawnRank, file - 1, PieceType.PAWN, sideToMove))
+                || (file < 7 && isAt(cells, pawnRank, file + 1, PieceType.PAWN, sideToMove));
+    }
+
+    private static boolean isAt(Piece[][] cells, int rank, int file, PieceType type, Color color) {
+        Piece piece = cells[rank][file];
+        return piece != null && piece.type() == type && piece.color() == color;
+    }
+
+    public Piece pieceAt(int rank, int file) {
+        return cells[rank][file];
+    }
+
+    public Color getSideToMove() {
+        return sideToMove;
+    }
+
+    public int getCastling() {
+        return castling;
+    }
+
+    public Square getEnPassant() {
+        return enPassant;
+    }
+
+    /**
+     * Создает движок, стоящий в этой позиции.
+     * Движок восстанавливается без истории: рокировки он определит по расстановке
+     * ({@link #castlingFromPlacement}), а взятие на проходе будет недоступно.
+     * Используется для старта партии ({@link GameService#newGame}); анализ ходит
+     * по позициям через {@link MoveGenerator}.
+     *
+     * @throws IllegalArgumentException если права позиции разойдутся с тем, что разрешит движок
+     */
+    public ChessEngine toEngine() {
+        requireRestorable();
+        return restoreEngine();
+    }
+
+    /**
+     * То же, что {@link #toEngine()}, но без проверки прав. Годится только там, где ходы движка
+     * отсекают лишнее, а не добавляют: так корень анализа сверяет свои ходы с движком.
+     */
+    ChessEngine restoreEngine() {
+        ChessEngine engine = new ChessEngine();
+
+        // Движок не позволяет задать очередь хода напрямую: за черных
+        // передаем ход тихим ходом коня b1-c3, расстановка все равно перезаписывается ниже
+        if (sideToMove == Color.BLACK) {
+            engine.makeMove(new Square(1, 0), new Square(2, 2));
+        }
+
+        Board board = engine.getBoard();
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                board.setPiece(rank, file, cells[rank][file]);
+            }
+        }
+        return engine;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Position other)) return false;
+        return sideToMove == other.sideToMove
+                && castling == other.castling
+                && Objects.equals(enPassant, other.enPassant)
+                && Arrays.deepEquals(cells, other.cells);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(Arrays.deepHashCode(cells), sideToMove, castling, enPassant);
+    }
+}
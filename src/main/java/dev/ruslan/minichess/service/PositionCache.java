@@ -0,0 +1,69 @@
+package dev.ruslan.minichess.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU-кеш разобранных и проверенных позиций по FEN.
+ * Частые стартовые позиции (задачи, тестовые наборы) не разбираются повторно.
+ */
+@Component
+public class PositionCache {
+    private final Map<String, Position> positions;
+
+    public PositionCache(@Value("${minichess.positions.cache-size:256}") int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Размер кеша позиций должен быть положительным");
+        }
+        this.positions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Position> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Возвращает позицию по FEN из тела запроса. Пробелы по краям игнорируются.
+     *
+     * @throws IllegalArgumentException если FEN пуст, некорректен или позиция нелегальна
+     */
+    public Position get(byte[] fen) {
+        int from = 0;
+        int to = fen.length;
+        while (from < to && Character.isWhitespace(fen[from])) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(fen[to - 1])) {
+            to--;
+        }
+        if (from == to) {
+            throw new IllegalArgumentException("FEN не задан");
+        }
+
+        String key = new String(fen, from, to - from, StandardCharsets.ISO_8859_1);
+        synchronized (positions) {
+            Position cached = positions.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        // Разбор вне блокировки: одинаковые промахи в худшем случае разберутся дважды
+        Position parsed = FenParser.parse(fen, from, to);
+        synchronized (positions) {
+            positions.putIfAbsent(key, parsed);
+        }
+        return parsed;
+    }
+
+    public int size() {
+        synchronized (positions) {
+            return positions.size();
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package dev.ruslan.minichess.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Трансляция партии зрителям через SSE.
+ * <p>
+ * Каждое изменение доски сериализуется один раз в неизменяемый кадр, и один и тот же
+ * массив байтов уходит всем подписчикам. Медленному зрителю промежуточные кадры
+ * не копятся: у подписчика есть только слот для последнего неотправленного кадра.
+ * Кадры упорядочены по версии партии ({@link GameService.Snapshot#version()}), поэтому
+ * состояние, опубликованное позже, но снятое раньше, не затрет более новое.
+ */
+@Service
+public class SpectatorService {
+    private final ObjectMapper objectMapper;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicReference<Frame> latest = new AtomicReference<>();
+
+    public SpectatorService(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Кадр состояния доски: JSON в байтах и версия партии, с которой он снят.
+     * Массив не меняется после создания.
+     */
+    private record Frame(long version, byte[] json) {
+    }
+
+    /**
+     * Сериализует состояние доски версии {@code version} и рассылает его всем зрителям.
+     * Кадр, который не новее уже опубликованного, зрители не получат.
+     *
+     * @return JSON кадра, чтобы тот же массив ушел и в HTTP-ответ; менять его нельзя
+     */
+    public byte[] publish(long version, Map<String, Object> boardState) {
+        Frame frame = new Frame(version, serialize(boardState));
+        latest.accumulateAndGet(frame, SpectatorService::newer);
+
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+        return frame.json();
+    }
+
+    /**
+     * Подключает зрителя. Он сразу получает текущее состояние; если кадров еще не было,
+     * его публикует {@code publishCurrent}.
+     */
+    public SseEmitter subscribe(SseEmitter emitter, Runnable publishCurrent) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+
+        if (latest.get() == null) {
+            publishCurrent.run();
+        } else {
+            subscriber.offer(latest.get());
+        }
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private byte[] serialize(Map<String, Object> boardState) {
+        try {
+            return objectMapper.writeValueAsBytes(boardState);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать состояние доски", e);
+        }
+    }
+
+    private static Frame newer(Frame current, Frame candidate) {
+        return current == null || candidate.version() > current.version() ? candidate : current;
+    }
+
+    /**
+     * Зритель с одним слотом под последний кадр. Отправкой занимается не больше
+     * одного потока за раз, а кадры, пришедшие во время отправки, затирают друг друга.
+     */
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final AtomicReference<Frame> pending = new AtomicReference<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private long lastSent;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Frame frame) {
+            pending.accumulateAndGet(frame, SpectatorService::newer);
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Frame frame;
+                while ((frame = pending.getAndSet(null)) != null) {
+                    if (frame.version() <= lastSent) {
+                        continue;
+                    }
+                    emitter.send(SseEmitter.event()
+                            .id(Long.toString(frame.version()))
+                            .name("board")
+                            .data(frame.json(), MediaType.APPLICATION_JSON));
+                    lastSent = frame.version();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Зритель отключился: флаг отправки не сбрасываем, новых кадров он не получит
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            }
+
+            sending.set(false);
+            // Кадр мог прийти между последней проверкой слота и сбросом флага
+            if (pending.get() != null && sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
@@ -3,21 +3,30 @@
  * Uses ES6+ features, modern APIs, and clean architecture
  */
 
-// Chess piece icons mapping - using local SVG files from cburnett set
-const PIECE_ICONS = {
-    'WHITE_KING': '/images/piece/cburnett/wK.svg',
-    'WHITE_QUEEN': '/images/piece/cburnett/wQ.svg',
-    'WHITE_ROOK': '/images/piece/cburnett/wR.svg',
-    'WHITE_BISHOP': '/images/piece/cburnett/wB.svg',
-    'WHITE_KNIGHT': '/images/piece/cburnett/wN.svg',
-    'WHITE_PAWN': '/images/piece/cburnett/wP.svg',
-    'BLACK_KING': '/images/piece/cburnett/bK.svg',
-    'BLACK_QUEEN': '/images/piece/cburnett/bQ.svg',
-    'BLACK_ROOK': '/images/piece/cburnett/bR.svg',
-    'BLACK_BISHOP': '/images/piece/cburnett/bB.svg',
-    'BLACK_KNIGHT': '/images/piece/cburnett/bN.svg',
-    'BLACK_PAWN': '/images/piece/cburnett/bP.svg'
+// Chess piece icons - fragments of the cburnett sprite built by Maven (sprite.svg#wK).
+// The sprite URL comes from the template so that it carries the content hash.
+// Without the Maven build (e.g. running from the IDE) there is no sprite:
+// the first piece that fails to load switches rendering to the per-piece SVGs.
+const PIECE_DIR = '/images/piece/cburnett';
+const PIECE_IDS = {
+    'WHITE_KING': 'wK',
+    'WHITE_QUEEN': 'wQ',
+    'WHITE_ROOK': 'wR',
+    'WHITE_BISHOP': 'wB',
+    'WHITE_KNIGHT': 'wN',
+    'WHITE_PAWN': 'wP',
+    'BLACK_KING': 'bK',
+    'BLACK_QUEEN': 'bQ',
+    'BLACK_ROOK': 'bR',
+    'BLACK_BISHOP': 'bB',
+    'BLACK_KNIGHT': 'bN',
+    'BLACK_PAWN': 'bP'
 };
+let pieceSprite = document.body.dataset.pieceSprite || `${PIECE_DIR}/sprite.svg`;
+
+function pieceIconUrl(pieceId) {
+    return pieceSprite ? `${pieceSprite}#${pieceId}` : `${PIECE_DIR}/${pieceId}.svg`;
+}
 
 // Game state management
 class GameState {
@@ -299,11 +308,16 @@ class ChessBoard {
                     const squareElement = document.querySelector(`[data-square="${squareName}"]`);
                     if (squareElement) {
                         const pieceKey = `${piece.color}_${piece.type}`;
-                        const iconUrl = PIECE_ICONS[pieceKey];
+                        const pieceId = PIECE_IDS[pieceKey];
 
-                        if (iconUrl) {
+                        if (pieceId) {
                             const img = document.createElement('img');
-                            img.src = iconUrl;
+                            img.onerror = () => {
+                                img.onerror = null;
+                                pieceSprite = null;
+                                img.src = pieceIconUrl(pieceId);
+                            };
+                            img.src = pieceIconUrl(pieceId);
                             img.alt = `${piece.color} ${piece.type}`;
                             img.dataset.pieceColor = piece.color;
                             img.dataset.pieceType = piece.type;
@@ -0,0 +1,126 @@
+package dev.ruslan.minichess;
+
+import chess.mini.engine.ChessEngine;
+import dev.ruslan.minichess.controller.AnalysisApiController;
+import dev.ruslan.minichess.service.AnalysisBusyException;
+import dev.ruslan.minichess.service.AnalysisService;
+import dev.ruslan.minichess.service.GameService;
+import dev.ruslan.minichess.service.Position;
+import dev.ruslan.minichess.service.PositionCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalysisApiController.class)
+class AnalysisApiControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private GameService gameService;
+
+    @MockBean
+    private AnalysisService analysisService;
+
+    @MockBean
+    private PositionCache positionCache;
+
+    private Position position;
+
+    @BeforeEach
+    void setUp() {
+        position = Position.of(new ChessEngine());
+        when(gameService.getPosition()).thenReturn(position);
+    }
+
+    @Test
+    void testAnalyzeStartsStream() throws Exception {
+        AnalysisService.DepthResult result = new AnalysisService.DepthResult(1,
+                List.of(new AnalysisService.Line("e2-e4", 30, null, List.of("e2-e4"))), 20, 1);
+        when(analysisService.analyzeAsync(eq(position), eq(2), eq(1), eq(1000L), any(), any()))
+                .thenAnswer(invocation -> {
+                    Consumer<AnalysisService.DepthResult> onDepth = invocation.getArgument(4);
+                    onDepth.accept(result);
+                    return CompletableFuture.completedFuture(result);
+                });
+
+        MvcResult mvcResult = mockMvc.perform(post("/api/analyze")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"depth\":2,\"multiPv\":1,\"timeMs\":1000}"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(content().string(containsString("event:depth\ndata:{\"depth\":1,")))
+                .andExpect(content().string(containsString("\"move\":\"e2-e4\"")))
+                .andExpect(content().string(containsString("event:done\ndata:{\"depth\":1,")));
+    }
+
+    @Test
+    void testAnalyzeBusy() throws Exception {
+        when(analysisService.analyzeAsync(any(), anyInt(), anyInt(), anyLong(), any(), any()))
+                .thenThrow(new AnalysisBusyException("Сервер занят другими анализами, повторите запрос позже"));
+
+        mockMvc.perform(post("/api/analyze"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(jsonPath("$.error").value("Сервер занят другими анализами, повторите запрос позже"));
+    }
+
+    @Test
+    void testAnalyzeNonNumericParameter() throws Exception {
+        mockMvc.perform(post("/api/analyze")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"depth\":\"deep\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Параметр 'depth' должен быть целым числом"));
+    }
+
+    @Test
+    void testAnalyzeInvalidDepth() throws Exception {
+        when(analysisService.analyzeAsync(any(), eq(99), anyInt(), anyLong(), any(), any()))
+                .thenThrow(new IllegalArgumentException("Глубина должна быть от 1 до 6"));
+
+        mockMvc.perform(post("/api/analyze")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"depth\":99}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Глубина должна быть от 1 до 6"));
+    }
+
+    @Test
+    void testAnalyzeFen() throws Exception {
+        String fen = "7k/8/8/8/8/8/8/K6R w - - 0 1";
+        Position fenPosition = mock(Position.class);
+        when(positionCache.get(fen.getBytes())).thenReturn(fenPosition);
+        when(analysisService.analyzeAsync(eq(fenPosition), anyInt(), anyInt(), anyLong(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(new AnalysisService.DepthResult(0, List.of(), 0, 0)));
+
+        mockMvc.perform(post("/api/analyze")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fen\":\"" + fen + "\"}"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        verify(gameService, never()).getPosition();
+    }
+}
@@ -0,0 +1,136 @@
+package dev.ruslan.minichess;
+
+import chess.mini.engine.data.Square;
+import dev.ruslan.minichess.service.AnalysisBusyException;
+import dev.ruslan.minichess.service.AnalysisService;
+import dev.ruslan.minichess.service.FenParser;
+import dev.ruslan.minichess.service.GameService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisServiceTest {
+
+    private AnalysisService analysisService;
+    private GameService gameService;
+
+    @BeforeEach
+    void setUp() {
+        analysisService = new AnalysisService(2);
+        gameService = new GameService();
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisService.shutdown();
+    }
+
+    @Test
+    void testFindsMateInOne() {
+        // Детский мат: 1. e4 e5 2. Qh5 Nc6 3. Bc4 Nf6, у белых Qxf7#
+        gameService.makeMove(new Square(4, 1), new Square(4, 3)); // e2-e4
+        gameService.makeMove(new Square(4, 6), new Square(4, 4)); // e7-e5
+        gameService.makeMove(new Square(3, 0), new Square(7, 4)); // d1-h5
+        gameService.makeMove(new Square(1, 7), new Square(2, 5)); // b8-c6
+        gameService.makeMove(new Square(5, 0), new Square(2, 3)); // f1-c4
+        gameService.makeMove(new Square(6, 7), new Square(5, 5)); // g8-f6
+
+        AnalysisService.DepthResult result = analysisService.analyze(
+                gameService.getPosition(), 1, 3, 10_000, r -> { }, () -> false);
+
+        assertEquals(1, result.depth());
+        assertEquals(3, result.lines().size());
+
+        AnalysisService.Line best = result.lines().get(0);
+        assertEquals("h5-f7", best.move());
+        assertEquals(1, best.mateIn());
+        assertTrue(best.score() > result.lines().get(1).score());
+    }
+
+    @Test
+    void testReportsEveryCompletedDepth() {
+        List<AnalysisService.DepthResult> results = new ArrayList<>();
+
+        AnalysisService.DepthResult last = analysisService.analyze(
+                gameService.getPosition(), 2, 2, 10_000, results::add, () -> false);
+
+        assertEquals(2, results.size());
+        assertEquals(1, results.get(0).depth());
+        assertEquals(2, results.get(1).depth());
+        assertSame(results.get(1), last);
+        assertEquals(2, last.lines().size());
+        assertEquals(2, last.lines().get(0).pv().size());
+    }
+
+    @Test
+    void testCancelledSearchReturnsEmptyResult() {
+        AnalysisService.DepthResult result = analysisService.analyze(
+                gameService.getPosition(), 3, 1, 10_000, r -> { }, () -> true);
+
+        assertEquals(0, result.depth());
+        assertTrue(result.lines().isEmpty());
+    }
+
+    @Test
+    void testReportsRootCheckmateAndStalemate() {
+        // Дурацкий мат: у белых нет ходов и король под шахом
+        AnalysisService.DepthResult mate = analysisService.analyze(FenParser.parse(
+                "rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3".getBytes()),
+                3, 1, 10_000, r -> fail("Глубины при мате не считаются"), () -> false);
+        assertEquals(AnalysisService.Termination.CHECKMATE, mate.termination());
+        assertEquals(0, mate.depth());
+        assertTrue(mate.lines().isEmpty());
+
+        AnalysisService.DepthResult stalemate = analysisService.analyze(FenParser.parse(
+                "7k/5Q2/6K1/8/8/8/8/8 b - - 0 1".getBytes()), 3, 1, 10_000, r -> { }, () -> false);
+        assertEquals(AnalysisService.Termination.STALEMATE, stalemate.termination());
+    }
+
+    @Test
+    void testInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> analysisService.analyze(
+                gameService.getPosition(), 0, 1, 1_000, r -> { }, () -> false));
+        assertThrows(IllegalArgumentException.class, () -> analysisService.analyze(
+                gameService.getPosition(), AnalysisService.MAX_DEPTH + 1, 1, 1_000, r -> { }, () -> false));
+        assertThrows(IllegalArgumentException.class, () -> analysisService.analyze(
+                gameService.getPosition(), 1, 0, 1_000, r -> { }, () -> false));
+        assertThrows(IllegalArgumentException.class, () -> analysisService.analyze(
+                gameService.getPosition(), 1, 1, 0, r -> { }, () -> false));
+    }
+
+    @Test
+    void testLimitsConcurrentAnalyses() throws Exception {
+        AnalysisService single = new AnalysisService(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            // Первый анализ держит единственное разрешение, пока его не отпустят
+            CompletableFuture<AnalysisService.DepthResult> running = single.analyzeAsync(
+                    gameService.getPosition(), 1, 1, 10_000, r -> { }, () -> {
+                        try {
+                            release.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        return false;
+                    });
+
+            assertThrows(AnalysisBusyException.class, () -> single.analyzeAsync(
+                    gameService.getPosition(), 1, 1, 10_000, r -> { }, () -> false));
+
+            release.countDown();
+            assertEquals(1, running.get().depth());
+            assertEquals(1, single.analyzeAsync(
+                    gameService.getPosition(), 1, 1, 10_000, r -> { }, () -> false).get().depth());
+        } finally {
+            release.countDown();
+            single.shutdown();
+        }
+    }
+}
@@ -6,22 +6,29 @@ import chess.mini.engine.data.Square;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.ruslan.minichess.controller.BoardApiController;
 import dev.ruslan.minichess.service.GameService;
+import dev.ruslan.minichess.service.Position;
+import dev.ruslan.minichess.service.PositionCache;
+import dev.ruslan.minichess.service.SpectatorService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BoardApiController.class)
@@ -33,6 +40,12 @@ class BoardApiControllerTest {
     @MockBean
     private GameService gameService;
 
+    @MockBean
+    private PositionCache positionCache;
+
+    @MockBean
+    private SpectatorService spectatorService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -44,15 +57,23 @@ class BoardApiControllerTest {
         board = Board.initial();
         sideToMove = Color.WHITE;
 
-        when(gameService.getBoard()).thenReturn(board);
-        when(gameService.getSideToMove()).thenReturn(sideToMove);
         when(gameService.getMoves()).thenReturn(Arrays.asList("e2-e4", "e7-e5"));
+        stubSnapshot(1, sideToMove);
+        // Как настоящий сервис: публикация возвращает сериализованный кадр
+        when(spectatorService.publish(anyLong(), anyMap()))
+                .thenAnswer(invocation -> objectMapper.writeValueAsBytes(invocation.getArgument(1)));
+    }
+
+    private void stubSnapshot(long version, Color side) {
+        when(gameService.snapshot()).thenReturn(
+                new GameService.Snapshot(version, new Position(board.getCells(), side), false, false));
     }
 
     @Test
     void testGetBoard() throws Exception {
         mockMvc.perform(get("/api/board"))
                 .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(1))
                 .andExpect(jsonPath("$.sideToMove").value("WHITE"))
                 .andExpect(jsonPath("$.cells").isArray())
                 .andExpect(jsonPath("$.cells[0][0].type").value("ROOK"))
@@ -96,8 +117,7 @@ class BoardApiControllerTest {
         doNothing().when(gameService).makeMove(from, to);
 
         // Мокаем возврат нового состояния доски
-        when(gameService.getBoard()).thenReturn(board);
-        when(gameService.getSideToMove()).thenReturn(Color.BLACK);
+        stubSnapshot(2, Color.BLACK);
 
         mockMvc.perform(post("/api/move")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -106,6 +126,22 @@ class BoardApiControllerTest {
                 .andExpect(jsonPath("$.sideToMove").value("BLACK"));
 
         verify(gameService).makeMove(from, to);
+        verify(spectatorService).publish(eq(2L), argThat(state -> "BLACK".equals(state.get("sideToMove"))));
+    }
+
+    @Test
+    void testMakeMoveRespondsWithPublishedFrame() throws Exception {
+        // Ответ ходящему — тот же JSON, что ушел зрителям, без повторной сериализации
+        byte[] frame = "{\"version\":2,\"sideToMove\":\"BLACK\"}".getBytes(StandardCharsets.UTF_8);
+        stubSnapshot(2, Color.BLACK);
+        when(spectatorService.publish(eq(2L), anyMap())).thenReturn(frame);
+
+        mockMvc.perform(post("/api/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\":\"e2\",\"to\":\"e4\"}"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(frame));
     }
 
     @Test
@@ -145,6 +181,85 @@ class BoardApiControllerTest {
                 .andExpect(status().isNoContent());
 
         verify(gameService).reset();
+        verify(spectatorService).publish(eq(1L), anyMap());
+    }
+
+    @Test
+    void testMakeMoveInvalidDoesNotPublish() throws Exception {
+        doThrow(new IllegalArgumentException("Недопустимый ход"))
+                .when(gameService).makeMove(any(), any());
+
+        mockMvc.perform(post("/api/move")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"from\":\"e2\",\"to\":\"e6\"}"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(spectatorService);
+    }
+
+    @Test
+    void testSpectate() throws Exception {
+        when(spectatorService.subscribe(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        mockMvc.perform(get("/api/spectate"))
+                .andExpect(status().isOk())
+                .andExpect(request().asyncStarted());
+
+        // Если кадров еще не было, текущая партия публикуется со своей версией
+        ArgumentCaptor<Runnable> publishCurrent = ArgumentCaptor.forClass(Runnable.class);
+        verify(spectatorService).subscribe(any(), publishCurrent.capture());
+        publishCurrent.getValue().run();
+        verify(spectatorService).publish(eq(1L), argThat(state -> "WHITE".equals(state.get("sideToMove"))));
+    }
+
+    @Test
+    void testNewGameFromFen() throws Exception {
+        String fen = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1";
+        Position position = mock(Position.class);
+        when(positionCache.get(fen.getBytes())).thenReturn(position);
+        stubSnapshot(2, Color.BLACK);
+
+        mockMvc.perform(post("/api/games")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content(fen))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sideToMove").value("BLACK"));
+
+        verify(gameService).newGame(position);
+    }
+
+    @Test
+    void testNewGameWithoutFen() throws Exception {
+        mockMvc.perform(post("/api/games"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.sideToMove").value("WHITE"));
+
+        verify(gameService).reset();
+        verifyNoInteractions(positionCache);
+    }
+
+    @Test
+    void testNewGameRejectsJsonBody() throws Exception {
+        mockMvc.perform(post("/api/games")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fen\":\"4k3/8/8/8/8/8/8/4K3 w - - 0 1\"}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verifyNoInteractions(positionCache);
+        verify(gameService, never()).newGame(any());
+    }
+
+    @Test
+    void testNewGameInvalidFen() throws Exception {
+        when(positionCache.get(any())).thenThrow(new IllegalArgumentException("У каждой стороны должен быть ровно один король"));
+
+        mockMvc.perform(post("/api/games")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("8/8/8/8/8/8/8/8 w - - 0 1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("У каждой стороны должен быть ровно один король"));
+
+        verify(gameService, never()).newGame(any());
     }
 
     @Test
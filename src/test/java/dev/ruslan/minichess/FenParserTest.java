@@ -0,0 +1,118 @@
+package dev.ruslan.minichess;
+
+import chess.mini.engine.ChessEngine;
+import chess.mini.engine.data.Color;
+import chess.mini.engine.data.Piece;
+import chess.mini.engine.data.PieceType;
+import dev.ruslan.minichess.service.FenParser;
+import dev.ruslan.minichess.service.Position;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenParserTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    @Test
+    void testStartingPosition() {
+        Position position = FenParser.parse(START.getBytes());
+
+        assertEquals(Position.of(new ChessEngine()), position);
+        assertEquals(new Piece(PieceType.KING, Color.WHITE), position.pieceAt(0, 4));
+        assertEquals(new Piece(PieceType.QUEEN, Color.BLACK), position.pieceAt(7, 3));
+        assertNull(position.pieceAt(3, 4));
+    }
+
+    @Test
+    void testOptionalFields() {
+        Position position = FenParser.parse("4k3/8/8/8/8/8/8/4K2R b".getBytes());
+
+        assertEquals(Color.BLACK, position.getSideToMove());
+        assertEquals(new Piece(PieceType.ROOK, Color.WHITE), position.pieceAt(0, 7));
+    }
+
+    @Test
+    void testParsesRangeOfBuffer() {
+        byte[] body = ("  " + START + "\n").getBytes();
+
+        Position position = FenParser.parse(body, 2, body.length - 1);
+
+        assertEquals(Color.WHITE, position.getSideToMove());
+    }
+
+    @Test
+    void testInvalidSyntax() {
+        assertInvalid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+                "Расстановка должна состоять из 8 горизонталей по 8 клеток");
+        assertInvalid("rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+                "Неизвестная фигура '9'");
+        assertInvalid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+                "Сторона, которой ход, должна быть 'w' или 'b'");
+        assertInvalid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KX - 0 1",
+                "Поля FEN должны разделяться пробелом");
+        assertInvalid("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e4 0 1",
+                "Поле взятия на проходе должно быть '-' или клеткой на 3-й или 6-й горизонтали");
+        assertInvalid(START + " extra", "Лишние символы в конце FEN");
+    }
+
+    @Test
+    void testIllegalPositions() {
+        assertInvalid("8/8/8/8/8/8/8/4K3 w - - 0 1",
+                "У каждой стороны должен быть ровно один король");
+        assertInvalid("4k3/8/8/8/8/8/8/3KK3 w - - 0 1",
+                "У каждой стороны должен быть ровно один король");
+        assertInvalid("4k3/8/8/8/8/8/8/P3K3 w - - 0 1",
+                "Пешка не может стоять на первой или последней горизонтали");
+        // Черный король под шахом ладьи, но ход белых
+        assertInvalid("4k3/8/8/8/8/8/8/4R1K1 w - - 0 1",
+                "Король стороны, которой не ход, не может быть под шахом");
+    }
+
+    @Test
+    void testSideToMoveMayBeInCheck() {
+        Position position = FenParser.parse("4k3/8/8/8/8/8/8/4R1K1 b - - 0 1".getBytes());
+
+        assertEquals(Color.BLACK, position.getSideToMove());
+    }
+
+    @Test
+    void testCastlingMustMatchPlacement() {
+        Position position = FenParser.parse("r3k3/8/8/8/8/8/8/4K2R w Kq - 0 1".getBytes());
+        assertEquals(Position.WHITE_KINGSIDE | Position.BLACK_QUEENSIDE, position.getCastling());
+
+        String message = "Права на рокировку должны совпадать с расстановкой: без истории ходов рокировка " +
+                "разрешена, только пока король и ладья стоят на исходных клетках";
+        // Ладья на h1 есть, но права отняты — движок все равно разрешит рокировку
+        assertInvalid("4k3/8/8/8/8/8/8/4K2R w - - 0 1", message);
+        // Права есть, а ладьи на a1 нет
+        assertInvalid("4k3/8/8/8/8/8/8/4K2R w KQ - 0 1", message);
+    }
+
+    @Test
+    void testEnPassantWithoutCapture() {
+        Position position = FenParser.parse(
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1".getBytes());
+
+        assertNull(position.getEnPassant());
+        assertEquals(FenParser.parse(
+                "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1".getBytes()), position);
+    }
+
+    @Test
+    void testInvalidEnPassant() {
+        assertInvalid("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e6 0 1",
+                "Клетка взятия на проходе не соответствует стороне, которой ход");
+        assertInvalid("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq d3 0 1",
+                "Через клетку взятия на проходе не проходила пешка");
+        // Черная пешка d4 могла бы взять e3 на проходе
+        assertInvalid("rnbqkbnr/ppp1pppp/8/8/3pP3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 3",
+                "Взятие на проходе не поддерживается: позиция восстанавливается без истории ходов");
+    }
+
+    private void assertInvalid(String fen, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> FenParser.parse(fen.getBytes()));
+        assertEquals(message, e.getMessage());
+    }
+}
@@ -0,0 +1,344 @@
+package dev.ruslan.minichess;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Нагрузочный прогон: N виртуальных игроков играют случайные легальные партии
+ * через {@code /api/board}, {@code /api/moves} и {@code /api/move}.
+ * <p>
+ * Запуск: {@code mvn test -Pload-test -Dload.players=1000 -Dload.durationSeconds=60 -Dload.thinkMs=100}.
+ * Итоги печатаются в консоль и дописываются в {@code target/load-test/report.csv},
+ * чтобы сравнивать прогоны между собой.
+ * <p>
+ * Все игроки ходят в одной партии {@link dev.ruslan.minichess.service.GameService}, поэтому
+ * ходы по доске, которую уже изменил другой игрок, вынесены в отдельную колонку {@code stale}
+ * и не смешиваются с настоящими отказами и ошибками сервиса. Устаревшим отказ считается,
+ * только если версия партии на сервере отличается от версии доски, по которой считался ход.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GameLoadTest {
+
+    private static final int PLAYERS = Integer.getInteger("load.players", 200);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.durationSeconds", 30);
+    private static final int THINK_MS = Integer.getInteger("load.thinkMs", 50);
+
+    private static final Path REPORT = Path.of("target", "load-test", "report.csv");
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private static final StaleCheck NEVER_STALE = () -> false;
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private HttpClient client;
+
+    @Test
+    void simulatePlayers() throws Exception {
+        for (String endpoint : List.of("GET /api/board", "GET /api/moves", "POST /api/move", "POST /api/reset")) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        Instant start = Instant.now();
+        Instant deadline = start.plusSeconds(DURATION_SECONDS);
+
+        try (ExecutorService httpExecutor = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient httpClient = HttpClient.newBuilder()
+                     .executor(httpExecutor)
+                     .connectTimeout(Duration.ofSeconds(5))
+                     .build();
+             ExecutorService players = Executors.newVirtualThreadPerTaskExecutor()) {
+            client = httpClient;
+
+            for (int i = 0; i < PLAYERS; i++) {
+                players.submit(() -> play(deadline));
+            }
+            players.shutdown();
+            players.awaitTermination(DURATION_SECONDS + 60L, TimeUnit.SECONDS);
+        }
+
+        double elapsedSeconds = Duration.between(start, Instant.now()).toMillis() / 1000.0;
+        report(elapsedSeconds);
+
+        assertTrue(stats.values().stream().mapToLong(EndpointStats::count).sum() > 0,
+                "Нагрузочный прогон не выполнил ни одного запроса");
+    }
+
+    /**
+     * Один игрок: до окончания прогона делает ходы с паузой на раздумье
+     */
+    private void play(Instant deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (Instant.now().isBefore(deadline)) {
+            try {
+                JsonNode board = json(call("GET /api/board", get("/api/board"), NEVER_STALE));
+                if (board != null) {
+                    playMove(board, random);
+                }
+
+                if (THINK_MS > 0) {
+                    Thread.sleep(random.nextInt(THINK_MS + 1));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ищет фигуру стороны, которой ход, с легальными ходами и делает случайный ход.
+     * Если ходов нет (мат или пат) — начинает новую партию.
+     * Отказ в ходе после того, как партию изменил другой игрок, учитывается как устаревшая доска.
+     */
+    private void playMove(JsonNode board, ThreadLocalRandom random) throws InterruptedException {
+        long seenVersion = board.path("version").asLong();
+
+        String sideToMove = board.path("sideToMove").asText();
+        List<String> ownSquares = ownSquares(board.path("cells"), sideToMove);
+        Collections.shuffle(ownSquares, random);
+
+        for (String from : ownSquares) {
+            JsonNode moves = json(call("GET /api/moves", get("/api/moves?from=" + from), NEVER_STALE));
+            if (moves == null || moves.path("moves").isEmpty()) {
+                continue;
+            }
+
+            JsonNode targets = moves.path("moves");
+            String to = targets.get(random.nextInt(targets.size())).asText();
+            call("POST /api/move", post("/api/move", "{\"from\":\"" + from + "\",\"to\":\"" + to + "\"}"),
+                    () -> gameChangedSince(seenVersion));
+            return;
+        }
+
+        call("POST /api/reset", post("/api/reset", ""), NEVER_STALE);
+    }
+
+    /**
+     * Перечитывает доску и сравнивает версию партии на сервере с той, что видел игрок.
+     * Если перечитать не удалось, отказ остается настоящим.
+     */
+    private boolean gameChangedSince(long seenVersion) throws InterruptedException {
+        JsonNode current = json(call("GET /api/board", get("/api/board"), NEVER_STALE));
+        return current != null && current.path("version").asLong() != seenVersion;
+    }
+
+    private List<String> ownSquares(JsonNode cells, String color) {
+        List<String> squares = new ArrayList<>();
+        for (int rank = 0; rank < cells.size(); rank++) {
+            JsonNode row = cells.get(rank);
+            for (int file = 0; file < row.size(); file++) {
+                JsonNode piece = row.get(file);
+                if (!piece.isNull() && color.equals(piece.path("color").asText())) {
+                    squares.add(String.valueOf((char) ('a' + file)) + (rank + 1));
+                }
+            }
+        }
+        return squares;
+    }
+
+    /**
+     * Выполняет запрос и учитывает его в статистике эндпоинта.
+     * Ответ 4xx, после которого {@code stale} подтвердил изменение партии, считается устаревшей
+     * доской, остальные 4xx — отклоненными запросами, 5xx и сетевые сбои — ошибками.
+     *
+     * @return ответ или {@code null} при сетевом сбое
+     */
+    private HttpResponse<String> call(String endpoint, HttpRequest request, StaleCheck stale)
+            throws InterruptedException {
+        EndpointStats endpointStats = stats.get(endpoint);
+        long started = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long latency = System.nanoTime() - started;
+            int status = response.statusCode();
+
+            if (status >= 500) {
+                endpointStats.recordError(latency);
+            } else if (status >= 400 && stale.gameChanged()) {
+                endpointStats.recordStale(latency);
+            } else if (status >= 400) {
+                endpointStats.recordRejected(latency);
+            } else {
+                endpointStats.recordSuccess(latency);
+            }
+            return response;
+        } catch (IOException e) {
+            endpointStats.recordError(System.nanoTime() - started);
+            return null;
+        }
+    }
+
+    /**
+     * Проверка после отказа: изменилась ли партия на сервере с момента чтения доски
+     */
+    @FunctionalInterface
+    private interface StaleCheck {
+        boolean gameChanged() throws InterruptedException;
+    }
+
+    /**
+     * Тело успешного ответа как JSON, иначе {@code null}
+     */
+    private JsonNode json(HttpResponse<String> response) {
+        if (response == null || response.statusCode() >= 300 || response.body().isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void report(double elapsedSeconds) throws IOException {
+        String runId = Instant.now().toString();
+
+        System.out.printf("%nНагрузочный прогон: игроков=%d, длительность=%.1fс, думать до=%dмс%n",
+                PLAYERS, elapsedSeconds, THINK_MS);
+        System.out.printf("%-16s %9s %9s %8s %8s %8s %8s %8s %8s %8s%n",
+                "endpoint", "requests", "req/s", "errors", "rejected", "stale",
+                "p50 ms", "p90 ms", "p99 ms", "max ms");
+
+        StringBuilder csv = new StringBuilder();
+        if (!Files.exists(REPORT)) {
+            csv.append("run,players,thinkMs,endpoint,requests,rps,errors,rejected,stale,p50ms,p90ms,p99ms,maxms\n");
+        }
+
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            EndpointStats s = entry.getValue();
+            long[] latencies = s.sortedLatencies();
+            double rps = s.count() / elapsedSeconds;
+
+            System.out.printf("%-16s %9d %9.1f %8d %8d %8d %8.2f %8.2f %8.2f %8.2f%n",
+                    entry.getKey(), s.count(), rps, s.errors(), s.rejected(), s.stale(),
+                    percentile(latencies, 50), percentile(latencies, 90),
+                    percentile(latencies, 99), percentile(latencies, 100));
+
+            csv.append(String.format(Locale.ROOT, "%s,%d,%d,%s,%d,%.1f,%d,%d,%d,%.2f,%.2f,%.2f,%.2f%n",
+                    runId, PLAYERS, THINK_MS, entry.getKey(), s.count(), rps, s.errors(), s.rejected(), s.stale(),
+                    percentile(latencies, 50), percentile(latencies, 90),
+                    percentile(latencies, 99), percentile(latencies, 100)));
+        }
+
+        Files.createDirectories(REPORT.getParent());
+        Files.writeString(REPORT, csv, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static double percentile(long[] sortedNanos, int percentile) {
+        if (sortedNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(index, 0)] / 1_000_000.0;
+    }
+
+    /**
+     * Статистика одного эндпоинта: счетчики и все задержки в наносекундах
+     */
+    private static final class EndpointStats {
+        private long[] latencies = new long[1024];
+        private int size;
+        private long errors;
+        private long rejected;
+        private long stale;
+
+        synchronized void recordSuccess(long latencyNanos) {
+            add(latencyNanos);
+        }
+
+        synchronized void recordRejected(long latencyNanos) {
+            rejected++;
+            add(latencyNanos);
+        }
+
+        synchronized void recordStale(long latencyNanos) {
+            stale++;
+            add(latencyNanos);
+        }
+
+        synchronized void recordError(long latencyNanos) {
+            errors++;
+            add(latencyNanos);
+        }
+
+        synchronized long count() {
+            return size;
+        }
+
+        synchronized long errors() {
+            return errors;
+        }
+
+        synchronized long rejected() {
+            return rejected;
+        }
+
+        synchronized long stale() {
+            return stale;
+        }
+
+        synchronized long[] sortedLatencies() {
+            long[] copy = Arrays.copyOf(latencies, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+
+        private void add(long latencyNanos) {
+            if (size == latencies.length) {
+                latencies = Arrays.copyOf(latencies, size * 2);
+            }
+            latencies[size++] = latencyNanos;
+        }
+    }
+}
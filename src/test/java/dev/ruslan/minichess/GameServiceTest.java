@@ -1,11 +1,11 @@
 package dev.ruslan.minichess;
 
-import chess.mini.engine.core.Board;
 import chess.mini.engine.data.Color;
-import chess.mini.engine.data.Piece;
 import chess.mini.engine.data.PieceType;
 import chess.mini.engine.data.Square;
+import dev.ruslan.minichess.service.FenParser;
 import dev.ruslan.minichess.service.GameService;
+import dev.ruslan.minichess.service.Position;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -14,6 +14,8 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class GameServiceTest {
+    // После e2-e4 e7-e5 черный ферзь стоит на e2 и шахует белого короля
+    private static final String QUEEN_CHECK_FROM_E2 = "rnb1kbnr/pppp1ppp/8/4p3/4P3/8/PPPPqPPP/RNBQKBNR w KQkq - 0 3";
 
     private GameService gameService;
 
@@ -27,20 +29,20 @@ class GameServiceTest {
         assertEquals(Color.WHITE, gameService.getSideToMove());
         assertEquals(0, gameService.getMoves().size());
 
-        Board board = gameService.getBoard();
+        Position position = gameService.getPosition();
         assertNotNull(board);
 
         // Проверяем белые фигуры
-        assertEquals(PieceType.ROOK, board.getPiece(0, 0).type());
-        assertEquals(Color.WHITE, board.getPiece(0, 0).color());
-        assertEquals(PieceType.PAWN, board.getPiece(1, 0).type());
-        assertEquals(Color.WHITE, board.getPiece(1, 0).color());
+        assertEquals(PieceType.ROOK, position.pieceAt(0, 0).type());
+        assertEquals(Color.WHITE, position.pieceAt(0, 0).color());
+        assertEquals(PieceType.PAWN, position.pieceAt(1, 0).type());
+        assertEquals(Color.WHITE, position.pieceAt(1, 0).color());
 
         // Проверяем черные фигуры
-        assertEquals(PieceType.ROOK, board.getPiece(7, 0).type());
-        assertEquals(Color.BLACK, board.getPiece(7, 0).color());
-        assertEquals(PieceType.PAWN, board.getPiece(6, 0).type());
-        assertEquals(Color.BLACK, board.getPiece(6, 0).color());
+        assertEquals(PieceType.ROOK, position.pieceAt(7, 0).type());
+        assertEquals(Color.BLACK, position.pieceAt(7, 0).color());
+        assertEquals(PieceType.PAWN, position.pieceAt(6, 0).type());
+        assertEquals(Color.BLACK, position.pieceAt(6, 0).color());
     }
 
     @Test
@@ -135,11 +137,11 @@ class GameServiceTest {
         gameService.makeMove(from, to);
 
         // Проверяем, что фигура переместилась
-        Board board = gameService.getBoard();
-        assertNull(board.getPiece(1, 4)); // e2 пуста (rank=1, file=4)
-        assertNotNull(board.getPiece(3, 4)); // e4 содержит пешку (rank=3, file=4)
-        assertEquals(PieceType.PAWN, board.getPiece(3, 4).type());
-        assertEquals(Color.WHITE, board.getPiece(3, 4).color());
+        Position position = gameService.getPosition();
+        assertNull(position.pieceAt(1, 4)); // e2 пуста (rank=1, file=4)
+        assertNotNull(position.pieceAt(3, 4)); // e4 содержит пешку (rank=3, file=4)
+        assertEquals(PieceType.PAWN, position.pieceAt(3, 4).type());
+        assertEquals(Color.WHITE, position.pieceAt(3, 4).color());
 
         // Проверяем, что сторона сменилась
         assertEquals(Color.BLACK, gameService.getSideToMove());
@@ -161,6 +163,25 @@ class GameServiceTest {
         });
     }
 
+    @Test
+    void testSnapshotVersion() {
+        GameService.Snapshot initial = gameService.snapshot();
+
+        gameService.makeMove(new Square(4, 1), new Square(4, 3)); // e2-e4
+        GameService.Snapshot afterMove = gameService.snapshot();
+        assertTrue(afterMove.version() > initial.version());
+        assertEquals(Color.BLACK, afterMove.position().getSideToMove());
+        assertEquals(PieceType.PAWN, afterMove.position().pieceAt(3, 4).type());
+
+        // Отклоненный ход партию не меняет
+        assertThrows(IllegalArgumentException.class,
+                () -> gameService.makeMove(new Square(4, 6), new Square(4, 2)));
+        assertEquals(afterMove.version(), gameService.snapshot().version());
+
+        gameService.reset();
+        assertTrue(gameService.snapshot().version() > afterMove.version());
+    }
+
     @Test
     void testReset() {
         // Делаем несколько ходов
@@ -177,11 +198,76 @@ class GameServiceTest {
         assertEquals(Color.WHITE, gameService.getSideToMove());
 
         // Проверяем, что доска вернулась к начальной позиции
-        Board board = gameService.getBoard();
-        assertEquals(PieceType.PAWN, board.getPiece(1, 4).type()); // e2
-        assertEquals(Color.WHITE, board.getPiece(1, 4).color());
-        assertEquals(PieceType.PAWN, board.getPiece(6, 4).type()); // e7
-        assertEquals(Color.BLACK, board.getPiece(6, 4).color());
+        Position position = gameService.getPosition();
+        assertEquals(PieceType.PAWN, position.pieceAt(1, 4).type()); // e2
+        assertEquals(Color.WHITE, position.pieceAt(1, 4).color());
+        assertEquals(PieceType.PAWN, position.pieceAt(6, 4).type()); // e7
+        assertEquals(Color.BLACK, position.pieceAt(6, 4).color());
+    }
+
+    @Test
+    void testNewGameFromPosition() {
+        gameService.makeMove(new Square(4, 1), new Square(4, 3)); // e2-e4
+
+        // Позиция после 1. d4, ход черных
+        gameService.newGame(FenParser.parse(
+                "rnbqkbnr/pppppppp/8/8/3P4/8/PPP1PPPP/RNBQKBNR b KQkq d3 0 1".getBytes()));
+
+        assertEquals(0, gameService.getMoves().size());
+        assertEquals(Color.BLACK, gameService.getSideToMove());
+
+        Position position = gameService.getPosition();
+        assertNull(position.pieceAt(3, 4)); // e4 пуста
+        assertEquals(PieceType.PAWN, position.pieceAt(3, 3).type()); // d4
+        assertEquals(PieceType.KNIGHT, position.pieceAt(0, 1).type()); // b1
+
+        gameService.makeMove(new Square(3, 6), new Square(3, 4)); // d7-d5
+        assertEquals(Color.WHITE, gameService.getSideToMove());
+    }
+
+    @Test
+    void testNewGameRejectsRightsEngineWouldNotHonour() {
+        gameService.makeMove(new Square(4, 1), new Square(4, 3)); // e2-e4
+        gameService.makeMove(new Square(4, 6), new Square(4, 4)); // e7-e5
+        gameService.makeMove(new Square(4, 0), new Square(4, 1)); // Ke1-e2
+        gameService.makeMove(new Square(4, 7), new Square(4, 6)); // Ke8-e7
+        gameService.makeMove(new Square(4, 1), new Square(4, 0)); // Ke2-e1
+        gameService.makeMove(new Square(4, 6), new Square(4, 7)); // Ke7-e8
+
+        // Короли снова на месте, но права потеряны — восстановленный движок разрешил бы рокировку
+        Position kingsReturned = gameService.getPosition();
+        assertEquals(0, kingsReturned.getCastling());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> gameService.newGame(kingsReturned));
+        assertTrue(e.getMessage().startsWith("Права на рокировку должны совпадать с расстановкой"));
+        assertEquals(6, gameService.getMoves().size());
+
+        // После d2-d4 черная пешка e4 могла бы взять на проходе
+        Position enPassant = FenParser.parse("4k3/8/8/8/4p3/8/3P4/4K3 w - - 0 1".getBytes());
+        gameService.newGame(enPassant);
+        gameService.makeMove(new Square(3, 1), new Square(3, 3)); // d2-d4
+        assertThrows(IllegalArgumentException.class, () -> gameService.newGame(gameService.getPosition()));
+    }
+
+    @Test
+    void testPositionTracksCastlingAndEnPassant() {
+        Position start = gameService.getPosition();
+        assertEquals(Position.WHITE_KINGSIDE | Position.WHITE_QUEENSIDE
+                | Position.BLACK_KINGSIDE | Position.BLACK_QUEENSIDE, start.getCastling());
+        assertNull(start.getEnPassant());
+
+        gameService.makeMove(new Square(4, 1), new Square(4, 3)); // e2-e4
+        assertEquals(new Square(4, 2), gameService.getPosition().getEnPassant()); // e3
+
+        gameService.makeMove(new Square(4, 6), new Square(4, 4)); // e7-e5
+        gameService.makeMove(new Square(4, 0), new Square(4, 1)); // Ke1-e2
+        gameService.makeMove(new Square(4, 7), new Square(4, 6)); // Ke8-e7
+        gameService.makeMove(new Square(4, 1), new Square(4, 0)); // Ke2-e1
+
+        // Король вернулся на e1, но право на рокировку потеряно
+        Position position = gameService.getPosition();
+        assertEquals(0, position.getCastling());
+        assertNull(position.getEnPassant());
     }
 
     @Test
@@ -222,16 +308,9 @@ class GameServiceTest {
         assertFalse(gameService.inCheck(Color.WHITE));
         assertFalse(gameService.inCheck(Color.BLACK));
 
-        // Создаем позицию с шахом: белый король под шахом от черного ферзя
-        // Сначала делаем ход e2-e4, чтобы освободить e2
-        gameService.makeMove(new Square(4, 1), new Square(4, 3)); // e2-e4
-
-        // Делаем ответный ход черных, чтобы вернуть ход белым
-        gameService.makeMove(new Square(4, 6), new Square(4, 4)); // e7-e5
-
-        // Теперь ставим черного ферзя на e2 через прямой доступ к доске
-        Board board = gameService.getBoard();
-        board.setPiece(1, 4, new Piece(PieceType.QUEEN, Color.BLACK));
+        // Создаем позицию с шахом: белый король под шахом от черного ферзя,
+        // который после e2-e4 e7-e5 стоит на e2
+        gameService.newGame(FenParser.parse(QUEEN_CHECK_FROM_E2.getBytes()));
 
         // Теперь белый король под шахом
         assertTrue(gameService.inCheck(Color.WHITE));
@@ -240,16 +319,8 @@ class GameServiceTest {
 
     @Test
     void testBasicCheckDetection() {
-        // Создаем простую позицию с шахом
-        // Сначала делаем ход e2-e4, чтобы освободить e2
-        gameService.makeMove(new Square(4, 1), new Square(4, 3)); // e2-e4
-
-        // Делаем ответный ход черных, чтобы вернуть ход белым
-        gameService.makeMove(new Square(4, 6), new Square(4, 4)); // e7-e5
-
-        // Теперь ставим черного ферзя на e2 (шах белому королю)
-        Board board = gameService.getBoard();
-        board.setPiece(1, 4, new Piece(PieceType.QUEEN, Color.BLACK));
+        // Создаем простую позицию с шахом: черный ферзь на e2 после e2-e4 e7-e5
+        gameService.newGame(FenParser.parse(QUEEN_CHECK_FROM_E2.getBytes()));
 
         // Теперь белый король под шахом
         assertTrue(gameService.inCheck(Color.WHITE));
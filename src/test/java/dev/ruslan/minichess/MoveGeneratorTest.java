@@ -0,0 +1,151 @@
+package dev.ruslan.minichess;
+
+import chess.mini.engine.ChessEngine;
+import chess.mini.engine.data.Color;
+import chess.mini.engine.data.Piece;
+import chess.mini.engine.data.PieceType;
+import chess.mini.engine.data.Square;
+import dev.ruslan.minichess.service.FenParser;
+import dev.ruslan.minichess.service.GameService;
+import dev.ruslan.minichess.service.Move;
+import dev.ruslan.minichess.service.MoveGenerator;
+import dev.ruslan.minichess.service.Position;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+
+    @Test
+    void testPerftFromStartingPosition() {
+        Position start = Position.of(new ChessEngine());
+
+        assertEquals(20, perft(start, 1));
+        assertEquals(400, perft(start, 2));
+        assertEquals(8902, perft(start, 3));
+    }
+
+    @Test
+    void testPerftWithCastling() {
+        // "Kiwipete": рокировки в обе стороны, связки и взятия
+        Position position = fen("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+
+        assertEquals(48, perft(position, 1));
+        assertEquals(2039, perft(position, 2));
+    }
+
+    @Test
+    void testPerftWithEnPassant() {
+        Position position = fen("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1");
+
+        assertEquals(14, perft(position, 1));
+        assertEquals(191, perft(position, 2));
+        assertEquals(2812, perft(position, 3));
+    }
+
+    @Test
+    void testEnPassantCapture() {
+        Position position = fen("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1");
+        Position pushed = MoveGenerator.play(position, move(4, 1, 4, 3)); // e2-e4
+        assertEquals(new Square(4, 2), pushed.getEnPassant());
+
+        Position captured = MoveGenerator.play(pushed, move(3, 3, 4, 2)); // d4:e3
+        assertTrue(MoveGenerator.legalMoves(pushed).contains(move(3, 3, 4, 2)));
+        assertNull(captured.pieceAt(3, 4)); // пешка e4 снята
+        assertEquals(new Piece(PieceType.PAWN, Color.BLACK), captured.pieceAt(2, 4));
+    }
+
+    @Test
+    void testCastlingMovesRookAndClearsRights() {
+        Position position = fen("4k3/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+
+        Position castled = MoveGenerator.play(position, move(4, 0, 6, 0)); // O-O
+
+        assertEquals(new Piece(PieceType.ROOK, Color.WHITE), castled.pieceAt(0, 5));
+        assertNull(castled.pieceAt(0, 7));
+        assertEquals(0, castled.getCastling());
+    }
+
+    @Test
+    void testCastlingThroughAttackedSquare() {
+        // Ладья f8 бьет f1: короткая рокировка запрещена, длинная возможна
+        Position position = fen("4kr2/8/8/8/8/8/8/R3K2R w KQ - 0 1");
+
+        assertFalse(MoveGenerator.legalMoves(position).contains(move(4, 0, 6, 0)));
+        assertTrue(MoveGenerator.legalMoves(position).contains(move(4, 0, 2, 0)));
+    }
+
+    @Test
+    void testPromotionToQueen() {
+        Position position = fen("4k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+
+        Position promoted = MoveGenerator.play(position, move(0, 6, 0, 7));
+
+        assertEquals(new Piece(PieceType.QUEEN, Color.WHITE), promoted.pieceAt(7, 0));
+    }
+
+    @Test
+    void testMatchesEngineInRandomGames() {
+        Random random = new Random(42);
+
+        for (int game = 0; game < 30; game++) {
+            GameService gameService = new GameService();
+            for (int ply = 0; ply < 200; ply++) {
+                Position position = gameService.getPosition();
+                Set<Move> engineMoves = engineMoves(gameService, position);
+
+                assertEquals(engineMoves, new HashSet<>(MoveGenerator.legalMoves(position)),
+                        "Ходы расходятся с движком в партии " + game + " после ходов " + gameService.getMoves());
+                if (engineMoves.isEmpty()) {
+                    break;
+                }
+
+                List<Move> moves = new ArrayList<>(engineMoves);
+                moves.sort((a, b) -> a.toString().compareTo(b.toString()));
+                Move move = moves.get(random.nextInt(moves.size()));
+                gameService.makeMove(move.from(), move.to());
+            }
+        }
+    }
+
+    private Set<Move> engineMoves(GameService gameService, Position position) {
+        Set<Move> moves = new HashSet<>();
+        for (int rank = 0; rank < 8; rank++) {
+            for (int file = 0; file < 8; file++) {
+                Piece piece = position.pieceAt(rank, file);
+                if (piece != null && piece.color() == position.getSideToMove()) {
+                    Square from = new Square(file, rank);
+                    for (Square to : gameService.legalMovesFrom(from)) {
+                        moves.add(new Move(from, to));
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    private long perft(Position position, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long nodes = 0;
+        for (Move move : MoveGenerator.legalMoves(position)) {
+            nodes += perft(MoveGenerator.play(position, move), depth - 1);
+        }
+        return nodes;
+    }
+
+    private Position fen(String fen) {
+        return FenParser.parse(fen.getBytes());
+    }
+
+    private Move move(int fromFile, int fromRank, int toFile, int toRank) {
+        return new Move(new Square(fromFile, fromRank), new Square(toFile, toRank));
+    }
+}
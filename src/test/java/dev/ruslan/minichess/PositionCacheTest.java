@@ -0,0 +1,47 @@
+package dev.ruslan.minichess;
+
+import dev.ruslan.minichess.service.Position;
+import dev.ruslan.minichess.service.PositionCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionCacheTest {
+
+    private static final String FEN_A = "4k3/8/8/8/8/8/8/4K2R w K - 0 1";
+    private static final String FEN_B = "4k3/8/8/8/8/8/8/R3K3 w Q - 0 1";
+    private static final String FEN_C = "4k3/8/8/8/8/8/8/4KQ2 w - - 0 1";
+
+    @Test
+    void testReturnsCachedPosition() {
+        PositionCache cache = new PositionCache(2);
+
+        Position first = cache.get(FEN_A.getBytes());
+        Position second = cache.get((" " + FEN_A + "\n").getBytes());
+
+        assertSame(first, second);
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        PositionCache cache = new PositionCache(2);
+
+        Position a = cache.get(FEN_A.getBytes());
+        cache.get(FEN_B.getBytes());
+        cache.get(FEN_A.getBytes()); // A становится недавно использованной
+        cache.get(FEN_C.getBytes()); // вытесняет B
+
+        assertEquals(2, cache.size());
+        assertSame(a, cache.get(FEN_A.getBytes()));
+    }
+
+    @Test
+    void testInvalidFenIsNotCached() {
+        PositionCache cache = new PositionCache(2);
+
+        assertThrows(IllegalArgumentException.class, () -> cache.get("8/8/8/8/8/8/8/8 w - - 0 1".getBytes()));
+        assertThrows(IllegalArgumentException.class, () -> cache.get("   ".getBytes()));
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,188 @@
+package dev.ruslan.minichess;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.ruslan.minichess.service.SpectatorService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class SpectatorServiceTest {
+
+    private ObjectMapper objectMapper;
+    private SpectatorService spectatorService;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = spy(Jackson2ObjectMapperBuilder.json().build());
+        spectatorService = new SpectatorService(objectMapper);
+    }
+
+    @AfterEach
+    void tearDown() {
+        spectatorService.shutdown();
+    }
+
+    @Test
+    void testFrameIsSerializedOnceForAllSubscribers() throws Exception {
+        List<RecordingEmitter> viewers = List.of(new RecordingEmitter(), new RecordingEmitter(), new RecordingEmitter());
+        for (RecordingEmitter viewer : viewers) {
+            spectatorService.subscribe(viewer, () -> spectatorService.publish(1, state("WHITE")));
+        }
+        assertEquals(3, spectatorService.getSubscriberCount());
+
+        spectatorService.publish(2, state("BLACK"));
+
+        for (RecordingEmitter viewer : viewers) {
+            viewer.awaitLastFrame("{\"sideToMove\":\"BLACK\"}");
+        }
+
+        // Первый кадр строится при первой подписке, второй — при ходе
+        verify(objectMapper, times(2)).writeValueAsBytes(any());
+        // Все зрители получили один и тот же массив байтов
+        assertSame(viewers.get(0).lastFrameBytes(), viewers.get(2).lastFrameBytes());
+    }
+
+    @Test
+    void testNewSubscriberGetsLatestFrame() throws Exception {
+        spectatorService.publish(3, state("BLACK"));
+
+        RecordingEmitter viewer = new RecordingEmitter();
+        spectatorService.subscribe(viewer, () -> fail("Кадр уже есть, текущее состояние публиковать не нужно"));
+
+        viewer.awaitLastFrame("{\"sideToMove\":\"BLACK\"}");
+    }
+
+    @Test
+    void testOlderVersionDoesNotReplaceNewerFrame() throws Exception {
+        RecordingEmitter viewer = new RecordingEmitter();
+        spectatorService.subscribe(viewer, () -> spectatorService.publish(1, state("WHITE")));
+        viewer.awaitLastFrame("{\"sideToMove\":\"WHITE\"}");
+
+        // Состояние версии 4 снято раньше, но опубликовано позже версии 5
+        spectatorService.publish(5, state("NEW"));
+        spectatorService.publish(4, state("OLD"));
+
+        viewer.awaitLastFrame("{\"sideToMove\":\"NEW\"}");
+        Thread.sleep(100);
+        assertFalse(viewer.frames().contains("{\"sideToMove\":\"OLD\"}"));
+
+        RecordingEmitter late = new RecordingEmitter();
+        spectatorService.subscribe(late, () -> fail("Кадр уже есть"));
+        late.awaitLastFrame("{\"sideToMove\":\"NEW\"}");
+    }
+
+    @Test
+    void testSlowSubscriberSkipsIntermediateFrames() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        spectatorService.subscribe(slow, () -> spectatorService.publish(1, state("WHITE")));
+        assertTrue(slow.sendStarted.await(5, TimeUnit.SECONDS));
+
+        // Пока первый кадр «застрял» в отправке, приходят еще пять
+        for (int i = 1; i <= 5; i++) {
+            spectatorService.publish(1 + i, state("MOVE_" + i));
+        }
+        release.countDown();
+
+        slow.awaitLastFrame("{\"sideToMove\":\"MOVE_5\"}");
+        Thread.sleep(100);
+        assertEquals(List.of("{\"sideToMove\":\"WHITE\"}", "{\"sideToMove\":\"MOVE_5\"}"), slow.frames());
+    }
+
+    @Test
+    void testDisconnectedSubscriberIsRemoved() throws Exception {
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.fail = true;
+        spectatorService.subscribe(broken, () -> spectatorService.publish(1, state("WHITE")));
+
+        for (int i = 0; i < 50 && spectatorService.getSubscriberCount() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, spectatorService.getSubscriberCount());
+        // Эмиттер закрыт с ошибкой, а не брошен открытым
+        assertTrue(broken.completedWithError.await(5, TimeUnit.SECONDS));
+    }
+
+    private Map<String, Object> state(String sideToMove) {
+        return Map.of("sideToMove", sideToMove);
+    }
+
+    /**
+     * Эмиттер, запоминающий отправленные кадры; первая отправка может ждать сигнала
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+        private final List<byte[]> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch firstSend;
+        private final CountDownLatch sendStarted = new CountDownLatch(1);
+        private final CountDownLatch completedWithError = new CountDownLatch(1);
+        private volatile boolean fail;
+
+        RecordingEmitter() {
+            this(new CountDownLatch(0));
+        }
+
+        RecordingEmitter(CountDownLatch firstSend) {
+            this.firstSend = firstSend;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) {
+                throw new IOException("Зритель отключился");
+            }
+            sendStarted.countDown();
+            try {
+                firstSend.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            for (ResponseBodyEmitter.DataWithMediaType part : builder.build()) {
+                if (part.getData() instanceof byte[] bytes) {
+                    sent.add(bytes);
+                }
+            }
+        }
+
+        @Override
+        public void completeWithError(Throwable ex) {
+            completedWithError.countDown();
+            super.completeWithError(ex);
+        }
+
+        void awaitLastFrame(String expected) throws InterruptedException {
+            for (int i = 0; i < 200 && (sent.isEmpty() || !expected.equals(lastFrame())); i++) {
+                Thread.sleep(10);
+            }
+            assertFalse(sent.isEmpty(), "Кадры не получены");
+            assertEquals(expected, lastFrame());
+        }
+
+        List<String> frames() {
+            return sent.stream().map(bytes -> new String(bytes, StandardCharsets.UTF_8)).toList();
+        }
+
+        String lastFrame() {
+            List<String> frames = frames();
+            return frames.get(frames.size() - 1);
+        }
+
+        byte[] lastFrameBytes() {
+            return sent.get(sent.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dev.ruslan.minichess;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.decoder.Decoder;
+import com.aayushatharva.brotli4j.decoder.DecoderJNI;
+import com.aayushatharva.brotli4j.decoder.DirectDecompress;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.resource.ResourceUrlProvider;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StaticResourceConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ResourceUrlProvider resourceUrlProvider;
+
+    @Test
+    void chessPage_ShouldLinkContentHashedAssets() throws Exception {
+        mockMvc.perform(get("/chess"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("/css/chess-")))
+                .andExpect(content().string(containsString("/js/chess-")))
+                .andExpect(content().string(containsString("/images/piece/cburnett/sprite-")));
+    }
+
+    @Test
+    void versionedAssets_ShouldBeCachedAsImmutable() throws Exception {
+        String versioned = resourceUrlProvider.getForLookupPath("/css/chess.css");
+        assertNotEquals("/css/chess.css", versioned);
+
+        mockMvc.perform(get(versioned))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("max-age=31536000")));
+    }
+
+    @Test
+    void unversionedAssets_ShouldBeRevalidated() throws Exception {
+        mockMvc.perform(get("/css/chess.css"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+
+        mockMvc.perform(get("/images/piece/cburnett/sprite.svg"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"));
+    }
+
+    @Test
+    void assets_ShouldBeServedPrecompressed() throws Exception {
+        mockMvc.perform(get("/js/chess.js").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+    }
+
+    @Test
+    void assets_ShouldPreferBrotli() throws Exception {
+        byte[] plain = mockMvc.perform(get("/js/chess.js"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        byte[] brotli = mockMvc.perform(get("/js/chess.js").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        Brotli4jLoader.ensureAvailability();
+        DirectDecompress decompressed = Decoder.decompress(brotli);
+        assertEquals(DecoderJNI.Status.DONE, decompressed.getResultStatus());
+        assertArrayEquals(plain, decompressed.getDecompressedData());
+
+        mockMvc.perform(get("/css/chess.css").header(HttpHeaders.ACCEPT_ENCODING, "br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "br"));
+    }
+
+    @Test
+    void scripts_ShouldBeMinified() throws Exception {
+        mockMvc.perform(get("/js/chess.js"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(not(containsString("// Game state management"))))
+                .andExpect(content().string(containsString("PIECE_IDS")));
+    }
+
+    @Test
+    void sprite_ShouldContainAllPieces() throws Exception {
+        mockMvc.perform(get("/images/piece/cburnett/sprite.svg"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("id=\"wK\"")))
+                .andExpect(content().string(containsString("id=\"bP\"")));
+    }
+}